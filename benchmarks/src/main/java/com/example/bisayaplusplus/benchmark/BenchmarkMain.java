@@ -0,0 +1,31 @@
+/* BENCHMARK MAIN
+ * Runs the benchmarks with the GC profiler, so every result also shows the
+ * allocation rate (gc.alloc.rate and gc.alloc.rate.norm, bytes per operation).
+ *
+ * Usage: java -jar benchmarks.jar [regexp]   e.g. "Interpreter" to run only
+ * the interpreter benchmarks. Results are also written to jmh-result.json.
+ */
+
+package com.example.bisayaplusplus.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com.example.bisayaplusplus.benchmark.*";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,127 @@
+/* INTERPRETER BENCHMARK
+ * Measures Engine.interpret on parsed programs, for every engine and at every
+ * optimization level (the -O option, see PassManager). Output goes to an
+ * in-memory sink and DAWAT reads the program's canned input, so nothing but
+ * the engine itself is measured. The passes run in the setup; compiling
+ * engines compile the program when they are created, which is part of every
+ * measured run.
+ *
+ * The "iterations" counter reports loop iterations per second for the
+ * synthetic counting loop; corpus programs report whole runs per second.
+ */
+
+package com.example.bisayaplusplus.benchmark;
+
+import com.example.bisayaplusplus.exception.LexerException;
+import com.example.bisayaplusplus.exception.ParserException;
+import com.example.bisayaplusplus.interpreter.EngineKind;
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.io.StringInputSource;
+import com.example.bisayaplusplus.io.StringOutputSink;
+import com.example.bisayaplusplus.lexer.Lexer;
+import com.example.bisayaplusplus.optimizer.PassManager;
+import com.example.bisayaplusplus.parser.Parser;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long iterations;
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset(){
+            iterations = 0;
+            statements = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CorpusProgram {
+        @Param({"test_cute_loop.bpp", "test_loop_env.bpp", "test_read.bpp", "inc2/test5.bpp", "inc2/test3.bpp"})
+        public String program;
+
+        @Param({"tiered", "tree", "closure", "vm", "jvm"})
+        public String engine;
+
+        @Param({"0", "1", "2"})
+        public int optimization;
+
+        Program resolved;
+        EngineKind engineKind;
+        String input;
+        int statementCount;
+        final StringOutputSink output = new StringOutputSink();
+
+        @Setup
+        public void load() throws LexerException, ParserException {
+            Programs.Program source = Programs.corpus(program);
+            List<Stmt> statements = new Parser(new Lexer(source.source()).scanTokens()).parse();
+            statementCount = Statements.count(statements);
+            resolved = Program.analyze(statements, new PassManager(optimization));
+            engineKind = EngineKind.of(engine);
+            input = source.input();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CountingLoop {
+        @Param({"1000", "100000"})
+        public int iterations;
+
+        @Param({"tiered", "tree", "closure", "vm", "jvm"})
+        public String engine;
+
+        @Param({"0", "1", "2"})
+        public int optimization;
+
+        Program resolved;
+        EngineKind engineKind;
+        final StringOutputSink output = new StringOutputSink();
+
+        @Setup
+        public void load() throws LexerException, ParserException {
+            List<Stmt> statements = new Parser(new Lexer(Programs.countingLoop(iterations).source()).scanTokens()).parse();
+            resolved = Program.analyze(statements, new PassManager(optimization));
+            engineKind = EngineKind.of(engine);
+        }
+    }
+
+    @Benchmark
+    public int corpus(CorpusProgram program, Counters counters) {
+        program.output.clear();
+        program.engineKind.create(program.resolved, program.output, new StringInputSource(program.input)).interpret();
+        counters.statements += program.statementCount;
+        return program.output.length();
+    }
+
+    @Benchmark
+    public int countingLoop(CountingLoop program, Counters counters) {
+        program.output.clear();
+        program.engineKind.create(program.resolved, program.output, new StringInputSource("")).interpret();
+        counters.iterations += program.iterations;
+        return program.output.length();
+    }
+}
@@ -0,0 +1,84 @@
+/* LEXER BENCHMARK
+ * Measures Lexer.scanTokens on corpus programs and on scaled synthetic
+ * programs. The "tokens" counter reports tokens per second.
+ */
+
+package com.example.bisayaplusplus.benchmark;
+
+import com.example.bisayaplusplus.exception.LexerException;
+import com.example.bisayaplusplus.lexer.Lexer;
+import com.example.bisayaplusplus.lexer.Token;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset(){
+            tokens = 0;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CorpusProgram {
+        @Param({"test_cute_loop.bpp", "test_loop_env.bpp", "test_read.bpp", "inc2/test5.bpp", "inc2/test3.bpp"})
+        public String program;
+
+        String source;
+
+        @Setup
+        public void load(){
+            source = Programs.corpus(program).source();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SyntheticProgram {
+        @Param({"100", "10000", "100000"})
+        public int lines;
+
+        String source;
+
+        @Setup
+        public void generate(){
+            source = Programs.generated(lines, 0, 0, 0, 0).source();
+        }
+    }
+
+    @Benchmark
+    public List<Token> corpus(CorpusProgram program, Counters counters) throws LexerException {
+        List<Token> tokens = new Lexer(program.source).scanTokens();
+        counters.tokens += tokens.size();
+        return tokens;
+    }
+
+    @Benchmark
+    public List<Token> synthetic(SyntheticProgram program, Counters counters) throws LexerException {
+        List<Token> tokens = new Lexer(program.source).scanTokens();
+        counters.tokens += tokens.size();
+        return tokens;
+    }
+}
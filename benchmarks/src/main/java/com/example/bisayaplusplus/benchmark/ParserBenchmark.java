@@ -0,0 +1,115 @@
+/* PARSER BENCHMARK
+ * Measures Parser.parse on already lexed corpus and synthetic programs.
+ * The "statements" counter reports parsed statements (including the ones
+ * nested in blocks) per second.
+ */
+
+package com.example.bisayaplusplus.benchmark;
+
+import com.example.bisayaplusplus.exception.LexerException;
+import com.example.bisayaplusplus.exception.ParserException;
+import com.example.bisayaplusplus.lexer.Lexer;
+import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.parser.Parser;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset(){
+            statements = 0;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CorpusProgram {
+        @Param({"test_cute_loop.bpp", "test_loop_env.bpp", "test_read.bpp", "inc2/test5.bpp", "inc2/test3.bpp"})
+        public String program;
+
+        List<Token> tokens;
+        int statements;
+
+        @Setup
+        public void load() throws LexerException, ParserException {
+            tokens = new Lexer(Programs.corpus(program).source()).scanTokens();
+            statements = Statements.count(new Parser(tokens).parse());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SyntheticProgram {
+        @Param({"100", "10000", "100000"})
+        public int lines;
+
+        List<Token> tokens;
+        int statements;
+
+        @Setup
+        public void generate() throws LexerException, ParserException {
+            tokens = new Lexer(Programs.generated(lines, 0, 0, 0, 0).source()).scanTokens();
+            statements = Statements.count(new Parser(tokens).parse());
+        }
+    }
+
+    // deeply nested KUNG/PUNDOK blocks, which the parser handles recursively
+    @State(Scope.Benchmark)
+    public static class NestedProgram {
+        @Param({"10", "500"})
+        public int depth;
+
+        List<Token> tokens;
+        int statements;
+
+        @Setup
+        public void generate() throws LexerException, ParserException {
+            tokens = new Lexer(Programs.generated(0, depth, 0, 0, 0).source()).scanTokens();
+            statements = Statements.count(new Parser(tokens).parse());
+        }
+    }
+
+    @Benchmark
+    public List<Stmt> corpus(CorpusProgram program, Counters counters) throws ParserException {
+        List<Stmt> statements = new Parser(program.tokens).parse();
+        counters.statements += program.statements;
+        return statements;
+    }
+
+    @Benchmark
+    public List<Stmt> synthetic(SyntheticProgram program, Counters counters) throws ParserException {
+        List<Stmt> statements = new Parser(program.tokens).parse();
+        counters.statements += program.statements;
+        return statements;
+    }
+
+    @Benchmark
+    public List<Stmt> nested(NestedProgram program, Counters counters) throws ParserException {
+        List<Stmt> statements = new Parser(program.tokens).parse();
+        counters.statements += program.statements;
+        return statements;
+    }
+}
@@ -0,0 +1,77 @@
+/* PROGRAMS
+ * Source code for the benchmarks: realistic programs taken from the
+ * test-cases corpus and synthetic programs whose size can be scaled.
+ *
+ * The corpus directory is found through the bpp.testCases system property,
+ * or by looking for test-cases/ in the working directory and its parent, so
+ * the benchmarks work when started from the project root or from benchmarks/.
+ */
+
+package com.example.bisayaplusplus.benchmark;
+
+import com.example.bisayaplusplus.tool.GenerateProgram;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+final class Programs {
+    private Programs(){}
+
+    // program source plus its canned DAWAT input and the loop iterations one run performs
+    record Program(String source, String input, long loopIterations) {}
+
+    static Program corpus(String name){
+        Path file = testCases().resolve(name);
+        Path inputFile = file.resolveSibling(name.substring(name.lastIndexOf('/') + 1).replace(".bpp", ".input"));
+
+        try {
+            String source = Files.readString(file, StandardCharsets.UTF_8);
+            String input = Files.exists(inputFile) ? Files.readString(inputFile, StandardCharsets.UTF_8) : "";
+            return new Program(source, input, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // fixed seed, so every run of the benchmarks measures the same programs
+    private static final long SEED = 42;
+
+    /*
+     * Synthetic program from GenerateProgram: random assignments, prints and
+     * KUNG statements, plus the optional nested block, long IPAKITA and loop.
+     */
+    static Program generated(int lines, int depth, int variables, int concatOperands, int loopIterations){
+        String source = new GenerateProgram(SEED).generate(lines, depth, variables, concatOperands, loopIterations);
+        return new Program(source, "", loopIterations);
+    }
+
+    /*
+     * Tight counting loop that performs the given number of iterations.
+     * The body does a little integer arithmetic and a comparison.
+     */
+    static Program countingLoop(int iterations){
+        String source = "SUGOD\n"
+                + "\tMUGNA NUMERO sum = 0, i = 0\n"
+                + "\tMINTRAS (i < " + iterations + ")\n"
+                + "\tPUNDOK{\n"
+                + "\t\tsum = (sum + i * 3) % 1000\n"
+                + "\t\ti++\n"
+                + "\t}\n"
+                + "\tIPAKITA: sum\n"
+                + "KATAPUSAN\n";
+        return new Program(source, "", iterations);
+    }
+
+    private static Path testCases(){
+        String configured = System.getProperty("bpp.testCases");
+        if (configured != null) return Path.of(configured);
+
+        for (Path candidate : new Path[]{ Path.of("test-cases"), Path.of("..", "test-cases") }){
+            if (Files.isDirectory(candidate)) return candidate;
+        }
+
+        throw new IllegalStateException("test-cases directory not found. Set -Dbpp.testCases=<dir>.");
+    }
+}
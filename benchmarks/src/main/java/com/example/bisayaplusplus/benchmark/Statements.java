@@ -0,0 +1,46 @@
+/* STATEMENTS
+ * Counts statements in a parsed program, including the ones nested in
+ * blocks, loops and if/else branches. Used for the statements/s counters.
+ */
+
+package com.example.bisayaplusplus.benchmark;
+
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.List;
+
+final class Statements {
+    private Statements(){}
+
+    static int count(List<? extends Stmt> statements){
+        int count = 0;
+        for (Stmt stmt : statements){
+            count += count(stmt);
+        }
+        return count;
+    }
+
+    static int count(Stmt stmt){
+        if (stmt == null) return 0;
+        if (stmt instanceof Stmt.Block) return count(((Stmt.Block) stmt).statements);
+
+        if (stmt instanceof Stmt.If){
+            Stmt.If ifStmt = (Stmt.If) stmt;
+            int count = 1 + count(ifStmt.thenBranch) + count(ifStmt.elseBranch);
+            if (ifStmt.elseIfBranch != null){
+                for (Stmt.ElseIf elseIf : ifStmt.elseIfBranch){
+                    count += count(elseIf.thenBranch);
+                }
+            }
+            return count;
+        }
+
+        if (stmt instanceof Stmt.ForLoop){
+            Stmt.ForLoop forLoop = (Stmt.ForLoop) stmt;
+            return 1 + count(forLoop.initialization) + count(forLoop.update) + count(forLoop.body);
+        }
+        if (stmt instanceof Stmt.While) return 1 + count(((Stmt.While) stmt).body);
+        if (stmt instanceof Stmt.DoWhile) return 1 + count(((Stmt.DoWhile) stmt).body);
+
+        return 1;
+    }
+}
@@ -0,0 +1,126 @@
+/* FRAME OUTPUT PIPELINE
+ * This class moves program output from the interpreter thread to the output
+ * TextArea without flooding the JavaFX event queue.
+ *
+ * The interpreter thread (the only producer) writes chunks of text into a
+ * bounded, lock-free ring buffer. A single AnimationTimer on the JavaFX thread
+ * (the only consumer) drains everything that is pending on each pulse and
+ * appends it to the TextArea in one call, so the UI is updated at most once
+ * per frame no matter how fast the program prints.
+ *
+ * When the ring buffer is full the producer waits for the consumer to catch
+ * up (backpressure) instead of dropping or reordering output. flush() blocks
+ * the producer until everything written so far is visible in the TextArea,
+ * which is used before reading input so that prompts are shown first.
+ */
+
+package com.example.bisayaplusplus;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.TextArea;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class FrameOutputPipeline {
+    // number of pending chunks before the producer has to wait. power of two.
+    private static final int CAPACITY = 1 << 12;
+    private static final int MASK = CAPACITY - 1;
+
+    // how long the producer parks between checks once spinning did not help
+    private static final long PARK_NANOS = 100_000;
+    private static final int SPINS = 100;
+
+    private final String[] ring = new String[CAPACITY];
+
+    // head - next slot the producer writes; only advanced by the producer
+    // tail - next slot the consumer reads; only advanced by the consumer,
+    //        and only after the chunks before it were appended to the TextArea
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final TextArea taOutput;
+    private final AnimationTimer pulse;
+    private final StringBuilder frameText = new StringBuilder();
+
+    public FrameOutputPipeline(TextArea taOutput){
+        this.taOutput = taOutput;
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drain();
+            }
+        };
+    }
+
+    // starts the consumer. must be called on the JavaFX thread.
+    public void start(){
+        pulse.start();
+    }
+
+    /*
+     * Queues text for the output area. Called by the interpreter thread.
+     * Blocks while the ring buffer is full.
+     */
+    public void write(String text){
+        if (text.isEmpty()) return;
+
+        long h = head.get();
+        awaitTail(h - CAPACITY + 1);
+
+        ring[(int) (h & MASK)] = text;
+        head.lazySet(h + 1); // publishes the slot after it was written
+    }
+
+    /*
+     * Blocks the interpreter thread until everything written so far
+     * was appended to the output area.
+     */
+    public void flush(){
+        awaitTail(head.get());
+    }
+
+    /*
+     * Flushes the remaining output and stops the consumer.
+     * Called by the interpreter thread once the program is done.
+     */
+    public void close(){
+        flush();
+        Platform.runLater(pulse::stop);
+    }
+
+    /*
+     * Appends everything pending to the output area in a single call.
+     * Runs on the JavaFX thread, once per pulse, or directly when the
+     * output has to be up-to-date right away (e.g. when stopping).
+     */
+    public void drain(){
+        long t = tail.get();
+        long h = head.get();
+
+        if (t == h) return;
+
+        frameText.setLength(0);
+        for (long i = t; i < h; i++){
+            int slot = (int) (i & MASK);
+            frameText.append(ring[slot]);
+            ring[slot] = null;
+        }
+
+        taOutput.appendText(frameText.toString());
+        tail.lazySet(h); // frees the slots and releases a waiting producer
+    }
+
+    // waits until the consumer has appended everything before the given position
+    private void awaitTail(long position){
+        int spins = 0;
+        while (tail.get() < position){
+            if (spins < SPINS){
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+    }
+}
@@ -17,12 +17,12 @@ import com.example.bisayaplusplus.exception.ParserException;
 import com.example.bisayaplusplus.exception.RuntimeError;
 import com.example.bisayaplusplus.exception.TypeError;
 import com.example.bisayaplusplus.interpreter.Interpreter;
+import com.example.bisayaplusplus.interpreter.Program;
 import com.example.bisayaplusplus.lexer.Lexer;
 import com.example.bisayaplusplus.lexer.Token;
 import com.example.bisayaplusplus.parser.AstPrinter;
 import com.example.bisayaplusplus.parser.Parser;
 import com.example.bisayaplusplus.parser.Stmt;
-import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.scene.control.TextArea;
 import javafx.stage.FileChooser;
@@ -40,7 +40,7 @@ public class InterpreterController {
     public TextArea taLineNumbers;
     private Stage stage;
     private Interpreter interpreter;
-    private boolean addedListener = false;
+    private TextAreaConsole console;
 
     /* Function that initializes the InterpreterController
      * mainly for the line numbers and synch scrolling of
@@ -55,6 +55,9 @@ public class InterpreterController {
         });
 
         updateLineNumbers();
+
+        // the output area doubles as the program's console
+        console = new TextAreaConsole(taOutput);
     }
 
     public void updateLineNumbers() {
@@ -101,22 +104,31 @@ public class InterpreterController {
             return;
         }
 
+        /* Resolver and type checker */
+        Program program;
+
+        try {
+            program = Program.analyze(statements);
+        } catch (RuntimeError | TypeError e){
+            taOutput.setText(e.getMessage() + "\n");
+            return;
+        }
+
         /* Interpreter */
-        interpreter = new Interpreter(statements, addedListener, taOutput);
-        addedListener = true;
+        TextAreaConsole.Run console = this.console.begin();
+        interpreter = new Interpreter(program, console, console);
 
         Thread interpreterThread = new Thread(() -> {
+            // messages go through the console so they come after the program's output
             try {
                 interpreter.interpret();
-                taOutput.appendText("\n\nProgram Finished! No error!");
+                console.write("\n\nProgram Finished! No error!");
             } catch (RuntimeError | TypeError e) {
-                Platform.runLater(() -> {
-                    taOutput.appendText(e.getMessage());
-                });
+                console.write(e.getMessage());
             } catch (Exception e) {
-                Platform.runLater(() -> {
-                    taOutput.appendText("RuntimeError: " + e.getMessage());
-                });
+                console.write("RuntimeError: " + e.getMessage());
+            } finally {
+                console.close();
             }
         });
 
@@ -190,6 +202,7 @@ public class InterpreterController {
     public void stopInterpreter(ActionEvent actionEvent) {
         if (interpreter != null){
             interpreter.stopInterpreting();
+            console.drain();
             taOutput.appendText("\nExecution stopped.");
         }
     }
@@ -0,0 +1,144 @@
+/* TEXT AREA CONSOLE
+ * Adapter that lets the interpreter use the output TextArea of the GUI as
+ * its OutputSink and InputSource.
+ *
+ * Output goes through a FrameOutputPipeline, so the TextArea is updated at
+ * most once per frame. For input, the text printed so far is locked and the
+ * user types after it; pressing ENTER hands the typed line to the waiting
+ * interpreter thread.
+ *
+ * One console is created per output TextArea. begin() is called before every
+ * run of the interpreter and returns the Run the interpreter writes to and
+ * reads from. Each Run has its own pipeline, and a run's thread only ever
+ * holds its own Run, so a stopped run that is still printing can't write into
+ * the pipeline of the next one.
+ */
+
+package com.example.bisayaplusplus;
+
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import javafx.application.Platform;
+import javafx.scene.control.TextArea;
+import javafx.scene.input.KeyCode;
+import java.util.concurrent.CompletableFuture;
+
+public class TextAreaConsole {
+    private final TextArea taOutput;
+    private Run current;            // the latest run. only used on the JavaFX thread
+
+    // text that is locked while waiting for input. only used on the JavaFX thread
+    private String currentOutput;
+    private volatile CompletableFuture<String> inputFuture;
+
+    public TextAreaConsole(TextArea taOutput){
+        this.taOutput = taOutput;
+
+        // Listener to keep cursor at the end and prevent edits to existing text
+        taOutput.textProperty().addListener((obs, oldText, newText) -> {
+            // If user tries to delete or modify the locked part
+            if (currentOutput != null){
+                if(!newText.startsWith(currentOutput)) {
+                    taOutput.setText(oldText); // revert
+                } else {
+                    // Allow typing only after the locked text
+                    String typed = newText.substring(currentOutput.length());
+                    taOutput.setText(currentOutput + typed);
+                }
+            }
+
+            // Force cursor to end
+            taOutput.positionCaret(taOutput.getText().length());
+        });
+
+        // to prevent mouse clicks
+        taOutput.setOnMouseClicked(e -> {
+            if (currentOutput != null && taOutput.getCaretPosition() < currentOutput.length()) {
+                taOutput.positionCaret(taOutput.getText().length());
+            }
+        });
+
+        taOutput.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER){
+                e.consume(); // prevent newline in TextArea
+
+                CompletableFuture<String> future = inputFuture;
+                if (currentOutput != null && future != null && !future.isDone()){
+                    future.complete(getInput(currentOutput));
+                }
+            }
+        });
+    }
+
+    /*
+     * Prepares the console for a new run. Must be called on the JavaFX thread.
+     */
+    public Run begin(){
+        currentOutput = null;
+        FrameOutputPipeline output = new FrameOutputPipeline(taOutput);
+        output.start();
+
+        current = new Run(output);
+        return current;
+    }
+
+    // makes all pending output of the latest run visible right away. must be called on the JavaFX thread.
+    public void drain(){
+        if (current != null) current.output.drain();
+    }
+
+    // the console as one run of the interpreter sees it. only that run's thread uses it
+    public final class Run implements OutputSink, InputSource {
+        private final FrameOutputPipeline output;
+
+        private Run(FrameOutputPipeline output){
+            this.output = output;
+        }
+
+        @Override
+        public void write(String text) {
+            output.write(text);
+        }
+
+        @Override
+        public void flush() {
+            output.flush();
+        }
+
+        // called by the interpreter thread after the run
+        @Override
+        public void close() {
+            output.close();
+            Platform.runLater(() -> {
+                if (current == this) currentOutput = null;
+            });
+        }
+
+        // called by the interpreter thread on DAWAT. blocks until the user presses ENTER
+        @Override
+        public String readLine() {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            inputFuture = future;
+
+            // prompts printed before DAWAT are visible at this point
+            output.flush();
+            Platform.runLater(() -> {
+                currentOutput = taOutput.getText();
+                taOutput.setEditable(true);
+            });
+
+            String input = future.join();
+            Platform.runLater(() -> taOutput.setEditable(false));
+            return input;
+        }
+    }
+
+    private String getInput(String currentOutput){
+        String input = taOutput.getText();
+        String adjustedInput = input.substring(currentOutput.length());
+
+        return adjustedInput.replaceAll("^[\\n\\r]+", "")    // remove leading newlines
+                .replaceAll("[\\n\\r]+$", "")    // remove trailing newlines
+                .trim();
+    }
+}
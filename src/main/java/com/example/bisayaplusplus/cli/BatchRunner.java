@@ -0,0 +1,289 @@
+/* BATCH RUNNER
+ * Runs every Bisaya++ program under a directory and checks its output
+ * against a stored expected ("golden") output.
+ *
+ * For a program  dir/foo.bpp  the runner uses
+ *   dir/foo.input     - canned DAWAT input, one line per DAWAT (optional)
+ *   dir/foo.expected  - the expected output, including the error message
+ *                       if the program is expected to fail
+ *
+ * Programs run in parallel on all cores, each with its own in-memory output
+ * and input, so they can't see each other's output. The runner prints one
+ * line per program (PASS, FAIL, NEW, TIMEOUT) with its wall time, and a
+ * summary. With --update the expected files are (re)written from the
+ * current output instead of being compared. -O0, -O1 or -O2 picks the
+ * optimization passes the programs are compiled with (see PassManager), so
+ * the same outputs can be checked with the passes off.
+ *
+ * Usage: batch <dir> [--update] [--threads=N] [--timeout=SECONDS] [--ext=bpp,txt] [--engine=tiered|tree|closure|vm|jvm] [-O0|-O1|-O2]
+ */
+
+package com.example.bisayaplusplus.cli;
+
+import com.example.bisayaplusplus.interpreter.EngineKind;
+import com.example.bisayaplusplus.io.StringInputSource;
+import com.example.bisayaplusplus.io.StringOutputSink;
+import com.example.bisayaplusplus.optimizer.PassManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BatchRunner {
+    private static final String INPUT_EXTENSION = ".input";
+    private static final String EXPECTED_EXTENSION = ".expected";
+
+    enum Status { PASS, FAIL, NEW, UPDATED, TIMEOUT }
+
+    // outcome of running one program
+    record Result(Path program, Status status, long nanos, String detail) {}
+
+    private final boolean update;
+    private final int threads;
+    private final long timeoutMillis;
+    private final List<String> extensions;
+    private final EngineKind engine;
+    private final PassManager passes;
+    private ScheduledExecutorService watchdog;
+
+    public BatchRunner(boolean update, int threads, long timeoutMillis, List<String> extensions, EngineKind engine){
+        this(update, threads, timeoutMillis, extensions, engine, PassManager.DEFAULT_LEVEL);
+    }
+
+    public BatchRunner(boolean update, int threads, long timeoutMillis, List<String> extensions, EngineKind engine,
+                       int optimizationLevel){
+        this.update = update;
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        this.extensions = extensions;
+        this.engine = engine;
+        this.passes = new PassManager(optimizationLevel);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path dir = null;
+        boolean update = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long timeoutSeconds = 10;
+        List<String> extensions = List.of("bpp");
+        EngineKind engine = EngineKind.TIERED;
+        int optimizationLevel = PassManager.DEFAULT_LEVEL;
+
+        for (String arg : args){
+            if (arg.equals("--update")){
+                update = true;
+            } else if (arg.startsWith("--threads=")){
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--timeout=")){
+                timeoutSeconds = Long.parseLong(arg.substring("--timeout=".length()));
+            } else if (arg.startsWith("--ext=")){
+                extensions = List.of(arg.substring("--ext=".length()).split(","));
+            } else if (arg.startsWith("--engine=")){
+                try {
+                    engine = EngineKind.of(arg.substring("--engine=".length()));
+                } catch (IllegalArgumentException e) {
+                    dir = null;
+                    break;
+                }
+            } else if (arg.startsWith("-O")){
+                try {
+                    optimizationLevel = PassManager.parseLevel(arg);
+                } catch (IllegalArgumentException e) {
+                    dir = null;
+                    break;
+                }
+            } else if (dir == null && !arg.startsWith("--")){
+                dir = Path.of(arg);
+            } else {
+                dir = null;
+                break;
+            }
+        }
+
+        if (dir == null){
+            System.err.println("Usage: batch <dir> [--update] [--threads=N] [--timeout=SECONDS] [--ext=bpp,txt] [--engine=tiered|tree|closure|vm|jvm] [-O0|-O1|-O2]");
+            System.exit(64);
+        }
+
+        BatchRunner runner = new BatchRunner(update, threads, timeoutSeconds * 1000, extensions, engine, optimizationLevel);
+        List<Path> programs = runner.findPrograms(dir);
+
+        long start = System.nanoTime();
+        List<Result> results = runner.runAll(programs);
+        long wallNanos = System.nanoTime() - start;
+
+        int failed = 0;
+        for (Result result : results){
+            System.out.printf("%-8s %9.2f ms  %s%n", result.status(), result.nanos() / 1e6, dir.relativize(result.program()));
+            if (result.detail() != null){
+                System.out.println("         " + result.detail());
+            }
+            if (result.status() == Status.FAIL || result.status() == Status.TIMEOUT) failed++;
+        }
+
+        System.out.printf("%n%d program(s), %d failed, %.2f ms wall time on %d thread(s)%n",
+                results.size(), failed, wallNanos / 1e6, runner.threads);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // every program file under the directory, in a stable order
+    public List<Path> findPrograms(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)){
+            return files.filter(Files::isRegularFile)
+                    .filter(this::isProgram)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /*
+     * Runs all programs on a pool of worker threads.
+     * Results are returned in the same order as the programs.
+     */
+    public List<Result> runAll(List<Path> programs) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "bpp-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "bpp-batch-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Path program : programs){
+                futures.add(pool.submit(() -> runProgram(program)));
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures){
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+            watchdog.shutdownNow();
+        }
+    }
+
+    // runs a single program and compares (or stores) its output
+    Result runProgram(Path program){
+        try {
+            return check(program);
+        } catch (IOException e) {
+            // only this program's result is lost, not the whole batch
+            return new Result(program, Status.FAIL, 0, "I/O error: " + e);
+        }
+    }
+
+    private Result check(Path program) throws IOException {
+        String source = Files.readString(program, StandardCharsets.UTF_8);
+        Path inputFile = sibling(program, INPUT_EXTENSION);
+        Path expectedFile = sibling(program, EXPECTED_EXTENSION);
+        String input = Files.exists(inputFile) ? Files.readString(inputFile, StandardCharsets.UTF_8) : "";
+
+        StringOutputSink output = new StringOutputSink();
+        ScriptRunner runner = new ScriptRunner(source, output, new StringInputSource(input), engine, passes);
+
+        long start = System.nanoTime();
+        String error;
+        try {
+            error = runWithTimeout(runner);
+        } catch (RuntimeException e) {
+            // a bug in the interpreter, never something to store as expected output
+            return new Result(program, Status.FAIL, System.nanoTime() - start, "internal error: " + e);
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (runner.isStopped()){
+            return new Result(program, Status.TIMEOUT, nanos, "stopped after " + timeoutMillis + " ms");
+        }
+
+        // errors are part of the output, the same way the GUI shows them
+        String actual = output.getText() + (error == null ? "" : error);
+
+        if (update){
+            Files.writeString(expectedFile, actual, StandardCharsets.UTF_8);
+            return new Result(program, Status.UPDATED, nanos, null);
+        }
+
+        if (!Files.exists(expectedFile)){
+            return new Result(program, Status.NEW, nanos, "no " + expectedFile.getFileName() + ", run with --update to create it");
+        }
+
+        String expected = Files.readString(expectedFile, StandardCharsets.UTF_8);
+        if (normalize(expected).equals(normalize(actual))){
+            return new Result(program, Status.PASS, nanos, null);
+        }
+
+        return new Result(program, Status.FAIL, nanos, describeDifference(normalize(expected), normalize(actual)));
+    }
+
+    /*
+     * Runs the program on the current worker thread. The watchdog stops it
+     * once it takes longer than the timeout (e.g. an endless loop).
+     */
+    private String runWithTimeout(ScriptRunner runner){
+        ScheduledFuture<?> timeout = watchdog.schedule(runner::stop, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            return runner.run();
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    private boolean isProgram(Path file){
+        String name = file.getFileName().toString();
+        for (String extension : extensions){
+            if (name.endsWith("." + extension)) return true;
+        }
+        return false;
+    }
+
+    // foo.bpp -> foo<extension> in the same directory
+    private static Path sibling(Path program, String extension){
+        String name = program.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return program.resolveSibling((dot < 0 ? name : name.substring(0, dot)) + extension);
+    }
+
+    // line endings and trailing whitespace at the end of the output don't matter
+    private static String normalize(String text){
+        return text.replace("\r\n", "\n").stripTrailing();
+    }
+
+    private static String describeDifference(String expected, String actual){
+        String[] expectedLines = expected.split("\n", -1);
+        String[] actualLines = actual.split("\n", -1);
+        int lines = Math.max(expectedLines.length, actualLines.length);
+
+        for (int i = 0; i < lines; i++){
+            String e = i < expectedLines.length ? expectedLines[i] : "<missing>";
+            String a = i < actualLines.length ? actualLines[i] : "<missing>";
+            if (!e.equals(a)){
+                return "line " + (i + 1) + ": expected \"" + e + "\" but was \"" + a + "\"";
+            }
+        }
+
+        return "output differs";
+    }
+}
@@ -0,0 +1,129 @@
+/* BISAYAPLUSPLUS RUNNER
+ * Command line entry point that runs Bisaya++ programs without the GUI.
+ *
+ * Every file given on the command line is lexed, parsed and interpreted in
+ * order. IPAKITA writes to stdout and DAWAT reads lines from stdin. Errors
+ * are printed to stderr; the exit code is 0 only if every program finished
+ * without an error. --engine=NAME picks the engine that runs them (tiered,
+ * the default, tree, closure, vm or jvm). --disassemble prints the VM bytecode of the
+ * programs instead of running them.
+ *
+ * -O0, -O1 or -O2 (the default) picks the optimization passes (see
+ * PassManager). --dump-passes prints each program before and after every
+ * pass, and --time-passes how long each pass took, both to stderr.
+ *
+ * This class never loads JavaFX, so it starts quickly and can be run from
+ * the plain jar: java -jar bisayaplusplus.jar program.bpp
+ */
+
+package com.example.bisayaplusplus.cli;
+
+import com.example.bisayaplusplus.exception.LexerException;
+import com.example.bisayaplusplus.exception.ParserException;
+import com.example.bisayaplusplus.exception.RuntimeError;
+import com.example.bisayaplusplus.exception.TypeError;
+import com.example.bisayaplusplus.interpreter.EngineKind;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import com.example.bisayaplusplus.io.ReaderInputSource;
+import com.example.bisayaplusplus.io.WriterOutputSink;
+import com.example.bisayaplusplus.optimizer.PassManager;
+import com.example.bisayaplusplus.vm.BytecodeCompiler;
+import com.example.bisayaplusplus.vm.Disassembler;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BisayaPlusPlusRunner {
+    private static final String USAGE = "Usage: bisayaplusplus [--engine=tiered|tree|closure|vm|jvm] [--disassemble] [-O0|-O1|-O2] [--dump-passes] [--time-passes] <file.bpp> [<file.bpp> ...]";
+
+    public static void main(String[] args) {
+        EngineKind engine = EngineKind.TIERED;
+        boolean disassemble = false;
+        int optimizationLevel = PassManager.DEFAULT_LEVEL;
+        boolean dumpPasses = false, timePasses = false;
+        List<String> files = new ArrayList<>();
+
+        for (String arg : args){
+            if (arg.equals("--disassemble")){
+                disassemble = true;
+            } else if (arg.equals("--dump-passes")){
+                dumpPasses = true;
+            } else if (arg.equals("--time-passes")){
+                timePasses = true;
+            } else if (arg.startsWith("-O")){
+                try {
+                    optimizationLevel = PassManager.parseLevel(arg);
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                    System.err.println(USAGE);
+                    System.exit(64);
+                }
+            } else if (arg.startsWith("--engine=")){
+                try {
+                    engine = EngineKind.of(arg.substring("--engine=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                    System.err.println(USAGE);
+                    System.exit(64);
+                }
+            } else {
+                files.add(arg);
+            }
+        }
+
+        if (files.isEmpty()){
+            System.err.println(USAGE);
+            System.exit(64);
+        }
+
+        PassManager passes = new PassManager(optimizationLevel, dumpPasses ? System.err : null, timePasses ? System.err : null);
+        OutputSink output = WriterOutputSink.stdout();
+        InputSource input = ReaderInputSource.stdin();
+        boolean hasError = false;
+
+        for (String file : files){
+            String source;
+            try {
+                source = Files.readString(Path.of(file), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Failed to read " + file + ": " + e.getMessage());
+                hasError = true;
+                continue;
+            }
+
+            String error;
+            try {
+                error = disassemble
+                        ? disassemble(source, output, passes)
+                        : ScriptRunner.run(source, output, input, engine, passes);
+            } catch (RuntimeException e) {
+                // a bug in the interpreter: report it as one, with its stack trace
+                e.printStackTrace();
+                error = "Internal error: " + e;
+            }
+            if (error != null){
+                System.err.println(files.size() > 1 ? file + ": " + error : error);
+                hasError = true;
+            }
+        }
+
+        output.close();
+        System.exit(hasError ? 1 : 0);
+    }
+
+    // writes the bytecode of the program. returns null, or the error message if it doesn't compile
+    private static String disassemble(String source, OutputSink output, PassManager passes){
+        try {
+            output.write(Disassembler.disassemble(BytecodeCompiler.compile(ScriptRunner.compile(source, passes))));
+            return null;
+        } catch (LexerException | ParserException | RuntimeError | TypeError e) {
+            return e.getMessage();
+        } finally {
+            output.flush();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/* SCRIPT RUNNER
+ * Runs Bisaya++ source code from start to finish without any user interface:
+ * lexing, parsing, static checks and interpreting, with the program's output going to an
+ * OutputSink and its DAWAT input coming from an InputSource. The program is
+ * run by the Engine of the given EngineKind, the tree-walking Interpreter
+ * by default, on the program the PassManager optimized, at -O2 by default.
+ *
+ * Errors are reported the same way the GUI shows them, so the command line
+ * runner and the batch runner print the same messages. Nothing in here may
+ * touch JavaFX; the headless runners depend on that for a fast startup.
+ */
+
+package com.example.bisayaplusplus.cli;
+
+import com.example.bisayaplusplus.exception.LexerException;
+import com.example.bisayaplusplus.exception.ParserException;
+import com.example.bisayaplusplus.exception.RuntimeError;
+import com.example.bisayaplusplus.exception.TypeError;
+import com.example.bisayaplusplus.interpreter.Engine;
+import com.example.bisayaplusplus.interpreter.EngineKind;
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import com.example.bisayaplusplus.optimizer.PassManager;
+import com.example.bisayaplusplus.lexer.Lexer;
+import com.example.bisayaplusplus.parser.Parser;
+
+public class ScriptRunner {
+    private final String source;
+    private final OutputSink output;
+    private final InputSource input;
+    private final EngineKind engineKind;
+    private final PassManager passes;
+    private volatile Engine interpreter;
+    private volatile boolean stopped = false;
+
+    public ScriptRunner(String source, OutputSink output, InputSource input){
+        this(source, output, input, EngineKind.TIERED);
+    }
+
+    public ScriptRunner(String source, OutputSink output, InputSource input, EngineKind engineKind){
+        this(source, output, input, engineKind, new PassManager(PassManager.DEFAULT_LEVEL));
+    }
+
+    public ScriptRunner(String source, OutputSink output, InputSource input, EngineKind engineKind, PassManager passes){
+        this.source = source;
+        this.output = output;
+        this.input = input;
+        this.engineKind = engineKind;
+        this.passes = passes;
+    }
+
+    // lexes, parses, resolves, type checks and optimizes a whole program
+    public static Program compile(String source) throws LexerException, ParserException {
+        return compile(source, new PassManager(PassManager.DEFAULT_LEVEL));
+    }
+
+    public static Program compile(String source, PassManager passes) throws LexerException, ParserException {
+        return Program.analyze(new Parser(new Lexer(source).scanTokens()).parse(), passes);
+    }
+
+    public static String run(String source, OutputSink output, InputSource input){
+        return new ScriptRunner(source, output, input).run();
+    }
+
+    public static String run(String source, OutputSink output, InputSource input, EngineKind engineKind){
+        return new ScriptRunner(source, output, input, engineKind).run();
+    }
+
+    public static String run(String source, OutputSink output, InputSource input, EngineKind engineKind, PassManager passes){
+        return new ScriptRunner(source, output, input, engineKind, passes).run();
+    }
+
+    /*
+     * Runs the whole program.
+     * Returns null if it finished without errors, otherwise the error message.
+     * The output is flushed, but not closed, in both cases. Any other exception
+     * is a bug in the interpreter, not an error of the program, and is thrown.
+     */
+    public String run(){
+        try {
+            Program program = compile(source, passes);
+            interpreter = engineKind.create(program, output, input);
+            if (stopped) return "Execution stopped.";
+
+            interpreter.interpret();
+            return stopped ? "Execution stopped." : null;
+        } catch (LexerException | ParserException | RuntimeError | TypeError e) {
+            return e.getMessage();
+        } catch (StackOverflowError e) {
+            return "RuntimeError: Program is nested too deeply.";
+        } finally {
+            output.flush();
+        }
+    }
+
+    public boolean isStopped(){
+        return stopped;
+    }
+
+    // asks a running program to stop at the next loop iteration. may be called from any thread
+    public void stop(){
+        stopped = true;
+
+        Engine running = interpreter;
+        if (running != null) running.stopInterpreting();
+    }
+}
@@ -3,15 +3,20 @@ package com.example.bisayaplusplus.exception;
 import com.example.bisayaplusplus.lexer.Token;
 
 public class RuntimeError extends RuntimeException{
-    final Token token;
+    final int line;
 
     public RuntimeError(Token token, String message){
+        this(token.getLine(), message);
+    }
+
+    // for code that only keeps the line numbers, like the bytecode VM
+    public RuntimeError(int line, String message){
         super(message);
-        this.token = token;
+        this.line = line;
     }
 
     @Override
     public String getMessage() {
-        return "[line " + token.getLine() + "] Runtime Error: " + super.getMessage();
+        return "[line " + line + "] Runtime Error: " + super.getMessage();
     }
 }
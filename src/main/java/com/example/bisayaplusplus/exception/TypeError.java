@@ -7,15 +7,28 @@ public class TypeError extends RuntimeException{
     final String valueDataType;
     final String varName;
     final String varDataType;
+    final String message;
+
+    public TypeError(Token token, String message) {
+        this.token = token;
+        this.message = message;
+        this.valueDataType = null;
+        this.varName = null;
+        this.varDataType = null;
+    }
+
     public TypeError(Token token, String valueDataType, String varName, String varDataType) {
         this.token = token;
         this.valueDataType = valueDataType;
         this.varName = varName;
         this.varDataType = varDataType;
+        this.message = null;
     }
 
     @Override
     public String getMessage() {
+        if (message != null) return "[line " + token.getLine() + "] TypeError: " + message;
+
         return "[line " + token.getLine() + "] TypeError: Cannot assign value of type '" + valueDataType + "'" +
         " to the variable '" + varName + "' of type '" + varDataType + "'";
     }
@@ -0,0 +1,931 @@
+/* CLOSURE ENGINE
+ * This engine runs a Program the same way the Interpreter does, but instead of
+ * visiting the tree while the program runs, it first compiles every statement
+ * and expression into a closure (a small lambda) that already holds everything
+ * the node needs: its compiled operands, the operator, the (depth, slot) of its
+ * variable, the conversion to apply. Running the program is just calling the
+ * closures of the top-level statements.
+ *
+ * All decisions the Interpreter makes on every visit (which node this is, which
+ * operator, which static type) are made once here, at compile time. Each kind
+ * of node ends up as its own small class with a single call site per operand,
+ * which the JIT can inline.
+ *
+ * The call sites inside a closure (left.eval() in an addition) still see every
+ * kind of operand in the program, so the JIT has to treat them as megamorphic.
+ * Operations on the shapes that dominate loops, a variable with a literal or
+ * with another variable (i + 1, n % 7, i <= n), get specialized closures that
+ * read the variables' slots directly and have no operand calls left. Division
+ * and modulo by a literal that can't fail also drop their checks. The types
+ * are all known statically, so a specialized closure never has to fall back.
+ *
+ * The closures keep the Interpreter's order of evaluation and its errors, so the
+ * output of a program is the same with either engine.
+ */
+
+package com.example.bisayaplusplus.interpreter;
+
+import com.example.bisayaplusplus.exception.RuntimeError;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.optimizer.CountedLoops;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Scope;
+import com.example.bisayaplusplus.parser.Stmt;
+import com.example.bisayaplusplus.parser.SwitchTable;
+import java.util.List;
+
+public class ClosureEngine implements Engine {
+    // compiled expressions, one interface per static type so values stay unboxed
+    interface IntNode { int eval(); }
+    interface DoubleNode { double eval(); }
+    interface CharNode { char eval(); }
+    interface BoolNode { boolean eval(); }
+    interface StringNode { String eval(); }
+
+    // a compiled statement
+    interface Action { void run(); }
+
+    private static final Action NOTHING = () -> {};
+
+    private final Environment environment;
+    private final OutputSink output;
+    private final InputSource input;
+    private final Action[] statements;
+    private volatile boolean shouldStop;
+
+    public ClosureEngine(Program program, OutputSink output, InputSource input){
+        this(new Environment(program.globals), output, input, program.statements);
+    }
+
+    // compiles the hot loops of an Interpreter, which run on the Interpreter's environment
+    ClosureEngine(Environment environment, OutputSink output, InputSource input){
+        this(environment, output, input, List.of());
+    }
+
+    private ClosureEngine(Environment environment, OutputSink output, InputSource input, List<Stmt> statements){
+        this.environment = environment;
+        this.output = output;
+        this.input = input;
+        this.statements = compile(statements);
+    }
+
+    @Override
+    public void interpret(){
+        for (Action statement : statements){
+            statement.run();
+        }
+    }
+
+    @Override
+    public void stopInterpreting(){
+        shouldStop = true;
+    }
+
+    // COMPILING EXPRESSIONS
+    private IntNode compileInt(Expr expr){
+        if (expr instanceof Expr.Variable){
+            Expr.Variable var = (Expr.Variable) expr;
+            return () -> environment.getInt(var);
+        }
+
+        if (expr instanceof Expr.Literal){
+            int value = (Integer) ((Expr.Literal) expr).value;
+            return () -> value;
+        }
+
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            IntNode specialized = specializeInt(binary);
+            if (specialized != null) return specialized;
+
+            Token operator = binary.operator;
+            IntNode left = compileInt(binary.left);
+            IntNode right = compileInt(binary.right);
+
+            switch (operator.getTokenType()){
+                case PLUS: return () -> add(operator, left.eval(), right.eval());
+                case MINUS: return () -> subtract(operator, left.eval(), right.eval());
+                case MULTIPLY: return () -> multiply(operator, left.eval(), right.eval());
+                case DIVIDE: return () -> divide(operator, left.eval(), right.eval());
+                case MODULO: return () -> modulo(operator, left.eval(), right.eval());
+            }
+
+            throw new RuntimeError(operator, "Unknown operator " + operator.getTokenType() + ".");
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return compileInt(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            IntNode right = compileInt(unary.right);
+            if (unary.operator.getTokenType() != TokenType.NEGATIVE) return right;
+
+            Token operator = unary.operator;
+            return () -> {
+                int value = right.eval();
+                if (value == Integer.MIN_VALUE) throw Interpreter.overflow(operator);
+                return -value;
+            };
+        }
+
+        if (expr instanceof Expr.Convert){
+            // TIPIK -> NUMERO
+            DoubleNode value = compileDouble(((Expr.Convert) expr).expression);
+            return () -> (int) value.eval();
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            int depth = assign.depth, slot = assign.slot;
+            IntNode value = compileInt(assign.value);
+            return () -> {
+                int result = value.eval();
+                environment.setInt(depth, slot, result);
+                return result;
+            };
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+            Expr.Variable var = increment.var;
+            Token operator = increment.operator;
+            int delta = delta(increment);
+            int limit = (delta > 0) ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+
+            if (increment.isPrefix){
+                return () -> {
+                    int value = environment.getInt(var);
+                    if (value == limit) throw Interpreter.overflow(operator);
+                    environment.setInt(var.depth, var.slot, value + delta);
+                    return value;
+                };
+            }
+
+            return () -> {
+                int value = environment.getInt(var);
+                if (value == limit) throw Interpreter.overflow(operator);
+                environment.setInt(var.depth, var.slot, value + delta);
+                return value + delta;
+            };
+        }
+
+        throw unexpected(expr);
+    }
+
+    private DoubleNode compileDouble(Expr expr){
+        if (expr instanceof Expr.Variable){
+            Expr.Variable var = (Expr.Variable) expr;
+            return () -> environment.getDouble(var);
+        }
+
+        if (expr instanceof Expr.Literal){
+            double value = (Double) ((Expr.Literal) expr).value;
+            return () -> value;
+        }
+
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            Token operator = binary.operator;
+            DoubleNode left = compileDouble(binary.left);
+            DoubleNode right = compileDouble(binary.right);
+
+            switch (operator.getTokenType()){
+                case PLUS: return () -> left.eval() + right.eval();
+                case MINUS: return () -> left.eval() - right.eval();
+                case MULTIPLY: return () -> left.eval() * right.eval();
+                case DIVIDE: return () -> left.eval() / right.eval();
+                case MODULO: return () -> left.eval() % right.eval();
+            }
+
+            throw new RuntimeError(operator, "Unknown operator " + operator.getTokenType() + ".");
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return compileDouble(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            DoubleNode right = compileDouble(unary.right);
+            if (unary.operator.getTokenType() != TokenType.NEGATIVE) return right;
+            return () -> -right.eval();
+        }
+
+        if (expr instanceof Expr.Convert){
+            // NUMERO -> TIPIK
+            IntNode value = compileInt(((Expr.Convert) expr).expression);
+            return () -> value.eval();
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            int depth = assign.depth, slot = assign.slot;
+            DoubleNode value = compileDouble(assign.value);
+            return () -> {
+                double result = value.eval();
+                environment.setDouble(depth, slot, result);
+                return result;
+            };
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+            Expr.Variable var = increment.var;
+            int delta = delta(increment);
+            boolean isPrefix = increment.isPrefix;
+
+            return () -> {
+                double value = environment.getDouble(var);
+                double nxtVal = value + delta;
+                environment.setDouble(var.depth, var.slot, nxtVal);
+                return isPrefix ? value : nxtVal;
+            };
+        }
+
+        throw unexpected(expr);
+    }
+
+    private CharNode compileChar(Expr expr){
+        if (expr instanceof Expr.Variable){
+            Expr.Variable var = (Expr.Variable) expr;
+            return () -> environment.getChar(var);
+        }
+
+        if (expr instanceof Expr.Literal){
+            char value = (Character) ((Expr.Literal) expr).value;
+            return () -> value;
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return compileChar(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            int depth = assign.depth, slot = assign.slot;
+            CharNode value = compileChar(assign.value);
+            return () -> {
+                char result = value.eval();
+                environment.setChar(depth, slot, result);
+                return result;
+            };
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+            Expr.Variable var = increment.var;
+            int delta = delta(increment);
+            boolean isPrefix = increment.isPrefix;
+
+            return () -> {
+                char value = environment.getChar(var);
+                char nxtVal = (char) (value + delta);
+                environment.setChar(var.depth, var.slot, nxtVal);
+                return isPrefix ? value : nxtVal;
+            };
+        }
+
+        throw unexpected(expr);
+    }
+
+    private BoolNode compileBoolean(Expr expr){
+        if (expr instanceof Expr.Logical){
+            return compileLogical((Expr.Logical) expr);
+        }
+
+        if (expr instanceof Expr.Variable){
+            Expr.Variable var = (Expr.Variable) expr;
+            return () -> environment.getBoolean(var);
+        }
+
+        if (expr instanceof Expr.Literal){
+            boolean value = (Boolean) ((Expr.Literal) expr).value;
+            return () -> value;
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return compileBoolean(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Convert){
+            return compileTruthy(((Expr.Convert) expr).expression);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            int depth = assign.depth, slot = assign.slot;
+            BoolNode value = compileBoolean(assign.value);
+            return () -> {
+                boolean result = value.eval();
+                environment.setBoolean(depth, slot, result);
+                return result;
+            };
+        }
+
+        throw unexpected(expr);
+    }
+
+    private StringNode compileString(Expr expr){
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            StringNode left = compileString(binary.left);
+            StringNode right = compileString(binary.right);
+            return () -> left.eval() + right.eval();
+        }
+
+        if (expr instanceof Expr.Convert){
+            return compileStringify(((Expr.Convert) expr).expression);
+        }
+
+        if (expr instanceof Expr.Literal){
+            String value = (String) ((Expr.Literal) expr).value;
+            return () -> value;
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return compileString(((Expr.Grouping) expr).expression);
+        }
+
+        throw unexpected(expr);
+    }
+
+    // same order of evaluation as Interpreter.evaluateLogical: left to right, UG and O short-circuit
+    private BoolNode compileLogical(Expr.Logical expr){
+        TokenType opType = expr.operator.getTokenType();
+
+        if (opType == TokenType.LOGIC_NOT){
+            BoolNode right = compileBoolean(expr.right);
+            return () -> !right.eval();
+        }
+
+        if (opType == TokenType.LOGIC_OR || opType == TokenType.LOGIC_AND){
+            BoolNode left = compileBoolean(expr.left);
+            BoolNode right = compileBoolean(expr.right);
+
+            if (opType == TokenType.LOGIC_OR) return () -> left.eval() || right.eval();
+            return () -> left.eval() && right.eval();
+        }
+
+        BoolNode specialized = specializeComparison(opType, expr.left, expr.right);
+        if (specialized != null) return specialized;
+
+        switch (expr.left.type){
+            case NUMERO: return compareInts(opType, compileInt(expr.left), compileInt(expr.right));
+            case TIPIK: return compareDoubles(opType, compileDouble(expr.left), compileDouble(expr.right));
+            case LETRA: {
+                CharNode left = compileChar(expr.left);
+                CharNode right = compileChar(expr.right);
+                boolean equal = opType != TokenType.NOT_EQUAL;
+                return () -> (left.eval() == right.eval()) == equal;
+            }
+            case TINUOD: {
+                BoolNode left = compileBoolean(expr.left);
+                BoolNode right = compileBoolean(expr.right);
+                boolean equal = opType != TokenType.NOT_EQUAL;
+                return () -> (left.eval() == right.eval()) == equal;
+            }
+            default: {
+                StringNode left = compileString(expr.left);
+                StringNode right = compileString(expr.right);
+                boolean equal = opType != TokenType.NOT_EQUAL;
+                return () -> left.eval().equals(right.eval()) == equal;
+            }
+        }
+    }
+
+    // Java evaluates the operands of a comparison left to right too
+    private BoolNode compareInts(TokenType opType, IntNode left, IntNode right){
+        switch (opType){
+            case GREATER_THAN: return () -> left.eval() > right.eval();
+            case GREATER_OR_EQUAL: return () -> left.eval() >= right.eval();
+            case LESSER_THAN: return () -> left.eval() < right.eval();
+            case LESSER_OR_EQUAL: return () -> left.eval() <= right.eval();
+            case NOT_EQUAL: return () -> left.eval() != right.eval();
+            default: return () -> left.eval() == right.eval();
+        }
+    }
+
+    private BoolNode compareDoubles(TokenType opType, DoubleNode left, DoubleNode right){
+        switch (opType){
+            case GREATER_THAN: return () -> left.eval() > right.eval();
+            case GREATER_OR_EQUAL: return () -> left.eval() >= right.eval();
+            case LESSER_THAN: return () -> left.eval() < right.eval();
+            case LESSER_OR_EQUAL: return () -> left.eval() <= right.eval();
+            case NOT_EQUAL: return () -> left.eval() != right.eval();
+            default: return () -> left.eval() == right.eval();
+        }
+    }
+
+    // SPECIALIZED SHAPES
+    // NUMERO arithmetic on a variable and a literal or two variables, null for any other shape
+    private IntNode specializeInt(Expr.Binary binary){
+        Token operator = binary.operator;
+        Expr.Variable var = variable(binary.left);
+        if (var == null) return null;
+
+        Integer constant = intConstant(binary.right);
+        if (constant != null){
+            int c = constant;
+
+            switch (operator.getTokenType()){
+                case PLUS: return () -> add(operator, environment.getInt(var), c);
+                case MINUS: return () -> subtract(operator, environment.getInt(var), c);
+                case MULTIPLY: return () -> multiply(operator, environment.getInt(var), c);
+                case DIVIDE:
+                    if (c == 0 || c == -1) return () -> divide(operator, environment.getInt(var), c);
+                    return () -> environment.getInt(var) / c;
+                case MODULO:
+                    if (c == 0) return () -> modulo(operator, environment.getInt(var), c);
+                    return () -> environment.getInt(var) % c;
+            }
+            return null;
+        }
+
+        Expr.Variable other = variable(binary.right);
+        if (other == null) return null;
+
+        switch (operator.getTokenType()){
+            case PLUS: return () -> add(operator, environment.getInt(var), environment.getInt(other));
+            case MINUS: return () -> subtract(operator, environment.getInt(var), environment.getInt(other));
+            case MULTIPLY: return () -> multiply(operator, environment.getInt(var), environment.getInt(other));
+            case DIVIDE: return () -> divide(operator, environment.getInt(var), environment.getInt(other));
+            case MODULO: return () -> modulo(operator, environment.getInt(var), environment.getInt(other));
+        }
+        return null;
+    }
+
+    // NUMERO and TIPIK comparisons of a variable with a literal or another variable
+    private BoolNode specializeComparison(TokenType opType, Expr leftExpr, Expr rightExpr){
+        Expr.Variable var = variable(leftExpr);
+        if (var == null) return null;
+
+        if (var.type == DataType.NUMERO){
+            Integer constant = intConstant(rightExpr);
+            if (constant != null){
+                int c = constant;
+
+                switch (opType){
+                    case GREATER_THAN: return () -> environment.getInt(var) > c;
+                    case GREATER_OR_EQUAL: return () -> environment.getInt(var) >= c;
+                    case LESSER_THAN: return () -> environment.getInt(var) < c;
+                    case LESSER_OR_EQUAL: return () -> environment.getInt(var) <= c;
+                    case NOT_EQUAL: return () -> environment.getInt(var) != c;
+                    default: return () -> environment.getInt(var) == c;
+                }
+            }
+
+            Expr.Variable other = variable(rightExpr);
+            if (other == null) return null;
+
+            // the left operand is read first, it is the one reported if both are unset
+            switch (opType){
+                case GREATER_THAN: return () -> environment.getInt(var) > environment.getInt(other);
+                case GREATER_OR_EQUAL: return () -> environment.getInt(var) >= environment.getInt(other);
+                case LESSER_THAN: return () -> environment.getInt(var) < environment.getInt(other);
+                case LESSER_OR_EQUAL: return () -> environment.getInt(var) <= environment.getInt(other);
+                case NOT_EQUAL: return () -> environment.getInt(var) != environment.getInt(other);
+                default: return () -> environment.getInt(var) == environment.getInt(other);
+            }
+        }
+
+        if (var.type == DataType.TIPIK){
+            Double constant = doubleConstant(rightExpr);
+            if (constant == null) return null;
+            double c = constant;
+
+            switch (opType){
+                case GREATER_THAN: return () -> environment.getDouble(var) > c;
+                case GREATER_OR_EQUAL: return () -> environment.getDouble(var) >= c;
+                case LESSER_THAN: return () -> environment.getDouble(var) < c;
+                case LESSER_OR_EQUAL: return () -> environment.getDouble(var) <= c;
+                case NOT_EQUAL: return () -> environment.getDouble(var) != c;
+                default: return () -> environment.getDouble(var) == c;
+            }
+        }
+
+        return null;
+    }
+
+    private static Expr unwrap(Expr expr){
+        while (expr instanceof Expr.Grouping){
+            expr = ((Expr.Grouping) expr).expression;
+        }
+        return expr;
+    }
+
+    private static Expr.Variable variable(Expr expr){
+        expr = unwrap(expr);
+        return (expr instanceof Expr.Variable) ? (Expr.Variable) expr : null;
+    }
+
+    // the value of a NUMERO literal, possibly signed, or null
+    private static Integer intConstant(Expr expr){
+        expr = unwrap(expr);
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            Integer value = intConstant(unary.right);
+            if (value == null || unary.operator.getTokenType() != TokenType.NEGATIVE) return value;
+            return (value == Integer.MIN_VALUE) ? null : -value;
+        }
+
+        if (expr instanceof Expr.Literal && expr.type == DataType.NUMERO){
+            return (Integer) ((Expr.Literal) expr).value;
+        }
+        return null;
+    }
+
+    // the value of a TIPIK literal, or of a NUMERO literal converted to TIPIK, or null
+    private static Double doubleConstant(Expr expr){
+        expr = unwrap(expr);
+
+        if (expr instanceof Expr.Convert){
+            Integer value = intConstant(((Expr.Convert) expr).expression);
+            return (value == null) ? null : (double) value;
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            Double value = doubleConstant(unary.right);
+            if (value == null || unary.operator.getTokenType() != TokenType.NEGATIVE) return value;
+            return -value;
+        }
+
+        if (expr instanceof Expr.Literal && expr.type == DataType.TIPIK){
+            return (Double) ((Expr.Literal) expr).value;
+        }
+        return null;
+    }
+
+    // a value used as a condition: 0 and "DILI" are false
+    private BoolNode compileTruthy(Expr expr){
+        switch (expr.type){
+            case NUMERO: {
+                IntNode value = compileInt(expr);
+                return () -> value.eval() != 0;
+            }
+            case TIPIK: {
+                DoubleNode value = compileDouble(expr);
+                return () -> value.eval() != 0;
+            }
+            case LETRA: {
+                CharNode value = compileChar(expr);
+                return () -> {
+                    value.eval();
+                    return true;
+                };
+            }
+            case TINUOD: return compileBoolean(expr);
+            default: {
+                StringNode value = compileString(expr);
+                return () -> !value.eval().equals("DILI");
+            }
+        }
+    }
+
+    private StringNode compileStringify(Expr expr){
+        switch (expr.type){
+            case NUMERO: {
+                IntNode value = compileInt(expr);
+                return () -> Integer.toString(value.eval());
+            }
+            case TIPIK: {
+                DoubleNode value = compileDouble(expr);
+                return () -> Double.toString(value.eval());
+            }
+            case LETRA: {
+                CharNode value = compileChar(expr);
+                return () -> String.valueOf(value.eval());
+            }
+            case TINUOD: {
+                BoolNode value = compileBoolean(expr);
+                return () -> value.eval() ? "OO" : "DILI";
+            }
+            default: return compileString(expr);
+        }
+    }
+
+    // an expression statement, its value is dropped
+    private Action compileForEffect(Expr expr){
+        switch (expr.type){
+            case NUMERO: return compileInt(expr)::eval;
+            case TIPIK: return compileDouble(expr)::eval;
+            case LETRA: return compileChar(expr)::eval;
+            case TINUOD: return compileBoolean(expr)::eval;
+            default: return compileString(expr)::eval;
+        }
+    }
+
+    // NUMERO arithmetic, with the same errors as Interpreter.arithmetic
+    private static int add(Token operator, int left, int right){
+        try {
+            return Math.addExact(left, right);
+        } catch (ArithmeticException e) {
+            throw Interpreter.overflow(operator);
+        }
+    }
+
+    private static int subtract(Token operator, int left, int right){
+        try {
+            return Math.subtractExact(left, right);
+        } catch (ArithmeticException e) {
+            throw Interpreter.overflow(operator);
+        }
+    }
+
+    private static int multiply(Token operator, int left, int right){
+        try {
+            return Math.multiplyExact(left, right);
+        } catch (ArithmeticException e) {
+            throw Interpreter.overflow(operator);
+        }
+    }
+
+    private static int divide(Token operator, int left, int right){
+        if (right == 0) throw new RuntimeError(operator, "Division by zero.");
+        if (left == Integer.MIN_VALUE && right == -1) throw Interpreter.overflow(operator);
+        return left / right;
+    }
+
+    private static int modulo(Token operator, int left, int right){
+        if (right == 0) throw new RuntimeError(operator, "Modulo by zero.");
+        return left % right;
+    }
+
+    private static int delta(Expr.IncrementOrDecrement expr){
+        return (expr.operator.getTokenType() == TokenType.INCREMENT) ? +1 : -1;
+    }
+
+    private static IllegalStateException unexpected(Expr expr){
+        return new IllegalStateException("Unexpected " + expr.type + " expression " + expr.getClass().getSimpleName());
+    }
+
+    // COMPILING STATEMENTS
+    private Action[] compile(List<Stmt> statements){
+        Action[] actions = new Action[statements.size()];
+        for (int i = 0; i < actions.length; i++){
+            actions[i] = compile(statements.get(i));
+        }
+        return actions;
+    }
+
+    private Action compile(Stmt stmt){
+        if (stmt instanceof Stmt.Expression){
+            return compileForEffect(((Stmt.Expression) stmt).expression);
+        }
+
+        if (stmt instanceof Stmt.Print){
+            StringNode value = compileString(((Stmt.Print) stmt).expression);
+            return () -> output.write(value.eval());
+        }
+
+        if (stmt instanceof Stmt.Var){
+            return compileVar((Stmt.Var) stmt);
+        }
+
+        if (stmt instanceof Stmt.Block){
+            Stmt.Block block = (Stmt.Block) stmt;
+            return compileBlock(block.scope, compile(block.statements));
+        }
+
+        if (stmt instanceof Stmt.If){
+            return compileIf((Stmt.If) stmt);
+        }
+
+        if (stmt instanceof Stmt.Switch){
+            return compileSwitch((Stmt.Switch) stmt);
+        }
+
+        if (stmt instanceof Stmt.ForLoop){
+            Stmt.ForLoop loop = (Stmt.ForLoop) stmt;
+            Scope scope = loop.scope;
+            Action initialization = compile(loop.initialization);
+            Action iterations = compileIterations(loop);
+
+            return () -> {
+                environment.enter(scope);
+                initialization.run();
+                iterations.run();
+            };
+        }
+
+        if (stmt instanceof Stmt.CountedLoop){
+            Stmt.CountedLoop counted = (Stmt.CountedLoop) stmt;
+            Scope scope = counted.loop.scope;
+            Action initialization = compile(counted.loop.initialization);
+            Action iterations = compileCountedIterations(counted);
+
+            return () -> {
+                environment.enter(scope);
+                initialization.run();
+                iterations.run();
+            };
+        }
+
+        if (stmt instanceof Stmt.While){
+            Stmt.While loop = (Stmt.While) stmt;
+            BoolNode condition = compileBoolean(loop.condition);
+            Action body = compile(loop.body);
+
+            return () -> {
+                while (condition.eval()){
+                    if (shouldStop) break;
+                    body.run();
+                }
+            };
+        }
+
+        if (stmt instanceof Stmt.DoWhile){
+            Stmt.DoWhile loop = (Stmt.DoWhile) stmt;
+            BoolNode condition = compileBoolean(loop.condition);
+            Action body = compile(loop.body);
+
+            return () -> {
+                do {
+                    if (shouldStop) break;
+                    body.run();
+                } while (condition.eval());
+            };
+        }
+
+        if (stmt instanceof Stmt.Input){
+            List<Expr.Variable> variables = ((Stmt.Input) stmt).variables;
+
+            return () -> {
+                // prompts printed before DAWAT must be visible before waiting for input
+                output.flush();
+                environment.assignFromInput(variables, input.readLine());
+            };
+        }
+
+        throw new IllegalStateException("Unexpected statement " + stmt.getClass().getSimpleName());
+    }
+
+    // the loop from its condition on, where the Interpreter hands a hot loop over:
+    // a ALANG SA without entering its scope and initializing, the others unchanged
+    Action compileLoop(Stmt loop){
+        if (loop instanceof Stmt.ForLoop) return compileIterations((Stmt.ForLoop) loop);
+        if (loop instanceof Stmt.CountedLoop) return compileCountedIterations((Stmt.CountedLoop) loop);
+        return compile(loop);
+    }
+
+    private Action compileIterations(Stmt.ForLoop loop){
+        BoolNode condition = compileBoolean(loop.condition);
+        Action update = compile(loop.update);
+        Action body = compile(loop.body);
+
+        return () -> {
+            while (condition.eval()){
+                if (shouldStop) break;
+
+                body.run();
+                update.run();
+            }
+        };
+    }
+
+    // counts the iterations left from the counter's value, like the Interpreter
+    private Action compileCountedIterations(Stmt.CountedLoop counted){
+        IntNode limit = compileInt(counted.limit);
+        IntNode start = compileInt(counted.counter);
+        Action body = compile(counted.loop.body);
+        Action iterations = compileIterations(counted.loop);
+        int depth = counted.counter.depth, slot = counted.counter.slot;
+        int step = counted.step;
+        boolean inclusive = counted.inclusive;
+
+        return () -> {
+            int end = limit.eval();
+            int value = start.eval();
+            long trips = CountedLoops.tripCount(value, end, step, inclusive);
+            if (trips < 0){
+                iterations.run();
+                return;
+            }
+
+            for (long trip = 0; trip < trips; trip++){
+                if (shouldStop) break;
+
+                environment.setInt(depth, slot, value);
+                body.run();
+                value += step;
+            }
+            environment.setInt(depth, slot, value);
+        };
+    }
+
+    private Action compileBlock(Scope scope, Action[] statements){
+        if (scope.isEmpty()){
+            if (statements.length == 1) return statements[0];
+
+            return () -> {
+                for (Action statement : statements){
+                    statement.run();
+                }
+            };
+        }
+
+        return () -> {
+            environment.enter(scope);
+
+            for (Action statement : statements){
+                statement.run();
+            }
+        };
+    }
+
+    private Action compileIf(Stmt.If stmt){
+        int branches = 1 + (stmt.elseIfBranch == null ? 0 : stmt.elseIfBranch.size());
+        BoolNode[] conditions = new BoolNode[branches];
+        Action[] thenBranches = new Action[branches];
+
+        conditions[0] = compileBoolean(stmt.condition);
+        thenBranches[0] = compile(stmt.thenBranch);
+        for (int i = 1; i < branches; i++){
+            Stmt.ElseIf elif = stmt.elseIfBranch.get(i - 1);
+            conditions[i] = compileBoolean(elif.condition);
+            thenBranches[i] = compile(elif.thenBranch);
+        }
+
+        Action elseBranch = (stmt.elseBranch == null) ? NOTHING : compile(stmt.elseBranch);
+
+        if (branches == 1){
+            BoolNode condition = conditions[0];
+            Action thenBranch = thenBranches[0];
+            return () -> {
+                if (condition.eval()){
+                    thenBranch.run();
+                } else {
+                    elseBranch.run();
+                }
+            };
+        }
+
+        return () -> {
+            for (int i = 0; i < branches; i++){
+                if (conditions[i].eval()){
+                    thenBranches[i].run();
+                    return;
+                }
+            }
+            elseBranch.run();
+        };
+    }
+
+    private Action compileSwitch(Stmt.Switch stmt){
+        SwitchTable table = stmt.table;
+        Action[] branches = compile(stmt.branches);
+        Action defaultBranch = (stmt.defaultBranch == null) ? NOTHING : compile(stmt.defaultBranch);
+
+        IntNode subject;
+        if (stmt.subject.type == DataType.LETRA){
+            CharNode letter = compileChar(stmt.subject);
+            subject = letter::eval;
+        } else {
+            subject = compileInt(stmt.subject);
+        }
+
+        return () -> {
+            int branch = table.indexOf(subject.eval());
+            if (branch >= 0){
+                branches[branch].run();
+            } else {
+                defaultBranch.run();
+            }
+        };
+    }
+
+    private Action compileVar(Stmt.Var stmt){
+        Expr initializer = stmt.initializer;
+        if (initializer == null) return NOTHING;
+
+        int depth = stmt.depth, slot = stmt.slot;
+
+        // the TypeChecker converted the initializer to the variable's type
+        switch (initializer.type){
+            case NUMERO: {
+                IntNode value = compileInt(initializer);
+                return () -> environment.setInt(depth, slot, value.eval());
+            }
+            case TIPIK: {
+                DoubleNode value = compileDouble(initializer);
+                return () -> environment.setDouble(depth, slot, value.eval());
+            }
+            case LETRA: {
+                CharNode value = compileChar(initializer);
+                return () -> environment.setChar(depth, slot, value.eval());
+            }
+            case TINUOD: {
+                BoolNode value = compileBoolean(initializer);
+                return () -> environment.setBoolean(depth, slot, value.eval());
+            }
+            default: return NOTHING;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/* ENGINE
+ * Something that runs an analyzed Program: the tree-walking Interpreter or
+ * one of the compiling engines. Every engine writes the same output and
+ * reports the same errors for the same program and input.
+ */
+
+package com.example.bisayaplusplus.interpreter;
+
+public interface Engine {
+    // runs the whole program. throws a RuntimeError for the first error
+    void interpret();
+
+    // asks the program to stop at the next loop iteration. may be called from any thread
+    void stopInterpreting();
+}
@@ -0,0 +1,48 @@
+/* ENGINE KIND
+ * The engines a program can be run with, by the name used for the --engine
+ * option of the command line runners.
+ *   - tiered:  the Interpreter, which hands hot loops to the ClosureEngine
+ *   - tree:    the Interpreter, walks the checked AST
+ *   - closure: the ClosureEngine, compiles the AST into pre-bound closures first
+ *   - vm:      the VirtualMachine, compiles the AST into register bytecode first
+ *   - jvm:     the JvmEngine, compiles the AST into a JVM class first
+ */
+
+package com.example.bisayaplusplus.interpreter;
+
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import com.example.bisayaplusplus.jvm.JvmEngine;
+import com.example.bisayaplusplus.vm.VirtualMachine;
+
+public enum EngineKind {
+    TIERED("tiered"),
+    TREE("tree"),
+    CLOSURE("closure"),
+    VM("vm"),
+    JVM("jvm");
+
+    public final String optionName;
+
+    EngineKind(String optionName){
+        this.optionName = optionName;
+    }
+
+    public Engine create(Program program, OutputSink output, InputSource input){
+        switch (this){
+            case CLOSURE: return new ClosureEngine(program, output, input);
+            case TIERED: return new Interpreter(program, output, input, Interpreter.HOT_LOOP_THRESHOLD);
+            case VM: return new VirtualMachine(program, output, input);
+            case JVM: return JvmEngine.create(program, output, input);
+            default: return new Interpreter(program, output, input);
+        }
+    }
+
+    // the engine for an --engine option value
+    public static EngineKind of(String optionName){
+        for (EngineKind kind : values()){
+            if (kind.optionName.equals(optionName)) return kind;
+        }
+        throw new IllegalArgumentException("Unknown engine " + optionName);
+    }
+}
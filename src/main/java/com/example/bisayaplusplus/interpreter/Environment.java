@@ -1,10 +1,27 @@
 /* ENVIRONMENT
- * This class manages the environment for the interpreter, handling variable scope
- * and storage. It utilizes a SymbolTable internally to maintain mappings between
- * variable names, their data types, and their corresponding values.
+ * This class manages the environment for the interpreter, handling variable
+ * storage at run time. Variables live in array frames, one frame per scope,
+ * and are accessed by the (depth, slot) pair the Resolver assigned to them,
+ * so no names are looked up while the program runs.
  *
- * It supports nested scopes through an 'enclosing' environment and provides
- * functionalities for defining, retrieving, and assigning variable values and types.
+ * Scopes only nest (there are no functions), so the frames form a display
+ * indexed directly by lexical depth: frame 0 holds the global variables, and
+ * entering a block puts a fresh frame for its variables at the block's depth.
+ * The names and types of the slots are kept once in the block's Scope, so a
+ * frame is a single array allocation, and a block that declares nothing gets
+ * no frame at all. Nothing has to be undone when a block is left: a frame at
+ * some depth is only ever read from inside the scope that put it there.
+ *
+ * No frame outlives the scope it was made for, so when the same scope is
+ * entered again (a loop body on its next iteration) its frame is reused: the
+ * slots declared without an initializer are set back to UNSET, which keeps
+ * every iteration's variables fresh without allocating.
+ *
+ * Every variable is a NUMERO, TIPIK, LETRA or TINUOD, so a frame is a plain
+ * long[] holding the raw bits of the primitive value (the int, the char, 0/1
+ * for a boolean, or the bits of the double). Reading and writing a variable
+ * never allocates. A slot that was never assigned holds UNSET, a NaN bit
+ * pattern that no int, char or boolean, and no computed double, can have.
  * Special handling is included for assigning values to variables based on input,
  * performing type conversions and checks as needed.
  */
@@ -12,77 +29,152 @@
 package com.example.bisayaplusplus.interpreter;
 
 import com.example.bisayaplusplus.exception.RuntimeError;
-import com.example.bisayaplusplus.lexer.Token;
-import java.util.HashMap;
-import java.util.Map;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Scope;
+import java.util.Arrays;
+import java.util.List;
 
 public class Environment {
-    final Environment enclosing;
-    SymbolTable symbolTable;
-    public Environment(){
-        enclosing = null;
-        symbolTable = new SymbolTable(null);
+    public static final long UNSET = 0x7ff4_dead_beef_0001L;
+
+    private long[][] frames = new long[16][];
+    // the scope each frame was made for
+    private Scope[] scopes = new Scope[16];
+
+    public Environment(Scope globals){
+        frames[0] = newFrame(globals.size());
+        scopes[0] = globals;
+    }
+
+    private static long[] newFrame(int slots){
+        long[] frame = new long[slots];
+        Arrays.fill(frame, UNSET);
+        return frame;
+    }
+
+    // gives the scope a fresh frame, scopes without variables need none
+    public void enter(Scope scope){
+        if (scope.isEmpty()) return;
+
+        int depth = scope.depth;
+        if (depth >= frames.length){
+            int length = Math.max(frames.length * 2, depth + 1);
+            frames = Arrays.copyOf(frames, length);
+            scopes = Arrays.copyOf(scopes, length);
+        }
+
+        if (scopes[depth] == scope){
+            long[] frame = frames[depth];
+            for (int slot : scope.uninitialized){
+                frame[slot] = UNSET;
+            }
+        } else {
+            frames[depth] = newFrame(scope.size());
+            scopes[depth] = scope;
+        }
+    }
+
+    private long bits(Expr.Variable var){
+        long bits = frames[var.depth][var.slot];
+        if (bits == UNSET){
+            throw new RuntimeError(var.name, "Variable " + var.name.getLiteral() + " might not have been initialized.");
+        }
+        return bits;
+    }
+
+    public int getInt(Expr.Variable var){
+        return (int) bits(var);
+    }
+
+    public double getDouble(Expr.Variable var){
+        return Double.longBitsToDouble(bits(var));
     }
 
-    public Environment(Environment enclosing, SymbolTable symbolTable){
-        this.enclosing = enclosing;
-        this.symbolTable = symbolTable;
+    public char getChar(Expr.Variable var){
+        return (char) bits(var);
     }
 
-    public void define(Token var, String dataType, Object value){
-        symbolTable.define(var, dataType, value);
+    public boolean getBoolean(Expr.Variable var){
+        return bits(var) != 0;
     }
 
-    public Object get(Token name){
-        return symbolTable.get(name);
+    public void setInt(int depth, int slot, int value){
+        frames[depth][slot] = value;
     }
 
-    public String getType(Token name){
-        return symbolTable.getType(name);
+    public void setDouble(int depth, int slot, double value){
+        frames[depth][slot] = Double.doubleToRawLongBits(value);
     }
 
-    public void assign(Token name, Object value) {
-        symbolTable.assign(name, value);
+    public void setChar(int depth, int slot, char value){
+        frames[depth][slot] = value;
     }
 
-    public void assignFromPrint(Token var, String value){
-        String varDataType = symbolTable.getType(var);
-        Object adjustedValue = null;
+    public void setBoolean(int depth, int slot, boolean value){
+        frames[depth][slot] = value ? 1 : 0;
+    }
+
+    /*
+     * Assigns one line of DAWAT input, comma separated values, to the variables.
+     * The line is null if there is no more input.
+     */
+    public void assignFromInput(List<Expr.Variable> variables, String input){
+        String[] inputs = splitInput(variables, input);
+
+        for (int i = 0; i < variables.size(); i++){
+            assignFromPrint(variables.get(i), inputs[i]);
+        }
+    }
+
+    public void assignFromPrint(Expr.Variable var, String value){
+        frames[var.depth][var.slot] = parseInput(var, value);
+    }
+
+    // the values of a line of DAWAT input, one for each variable
+    public static String[] splitInput(List<Expr.Variable> variables, String input){
+        if (input == null){
+            throw new RuntimeError(variables.get(0).name, "No input received. Expect " + variables.size() + " input(s).");
+        }
+
+        String[] inputs = input.split(",",-1);
+
+        if (inputs.length < variables.size()){
+            throw new RuntimeError(variables.get(0).name, "Received less inputs than needed. Expect " + variables.size() + ", but received " + inputs.length + ".");
+        }
+
+        if (inputs.length > variables.size()){
+            throw new RuntimeError(variables.get(0).name, "Received more inputs than needed. Received " + inputs.length + ", expect " + variables.size());
+        }
+
+        return inputs;
+    }
+
+    // the bits to store for an input value, converted to the variable's type
+    public static long parseInput(Expr.Variable var, String value){
+        String varDataType = var.declaration.dataType;
         value = value.trim();
 
         try {
-            switch (varDataType){
-                case "Integer":
-                    adjustedValue = Integer.parseInt(value);
-                    break;
-                case "Double":
-                    adjustedValue = Double.parseDouble(value);
-                    break;
-                case "Boolean":
+            switch (var.type){
+                case NUMERO:
+                    return Integer.parseInt(value);
+                case TIPIK:
+                    return Double.doubleToRawLongBits(Double.parseDouble(value));
+                case TINUOD:
                     if (value.equals("\"OO\"")){
-                        adjustedValue = "OO";
+                        return 1;
                     } else if (value.equals("DILI")){
-                        adjustedValue = "DILI";
-                    } else {
-                        throw new RuntimeError(var,"Incompatible input for variable " + var.getLiteral() + " with type Boolean.");
+                        return 0;
                     }
-                    break;
-                case "Character":
-                    if (value.length() == 1){
-                        adjustedValue = value.charAt(0);
-                    };
-                    break;
+                    throw new RuntimeError(var.name,"Incompatible input for variable " + var.name.getLiteral() + " with type Boolean.");
+                case LETRA:
+                    // anything but a single character leaves the variable unset
+                    return (value.length() == 1) ? value.charAt(0) : UNSET;
                 default:
-                    throw new RuntimeError(var, "Incompatible input for variable " + var.getLiteral() + " with type " + varDataType + ".");
+                    throw new RuntimeError(var.name, "Incompatible input for variable " + var.name.getLiteral() + " with type " + varDataType + ".");
             }
         } catch (NumberFormatException n){
-            throw new RuntimeError(var, "Expect " + varDataType + " but received " + value);
+            throw new RuntimeError(var.name, "Expect " + varDataType + " but received " + value);
         }
-
-        symbolTable.assign(var, adjustedValue);
-    }
-    
-    public void print(){
-        symbolTable.print();
     }
 }
@@ -4,337 +4,525 @@
  * (Expr.Visitor) and statements (Stmt.Visitor), allowing it to traverse the
  * Abstract Syntax Tree (AST) and perform the corresponding actions.
  *
- * It maintains an Environment to manage variable scopes and a reference to the
- * output TextArea for displaying results and handling user input. The interpreter
+ * It runs a Program that went through the Resolver and the TypeChecker, so every
+ * variable is already bound to a (depth, slot) pair in the Environment's frames,
+ * every operand has the type its operator expects and all implicit conversions
+ * are explicit Expr.Convert nodes. No type names are compared at run time.
+ * It maintains an Environment to manage variable scopes, an OutputSink where
+ * printed values are written and an InputSource for user input. The interpreter
  * handles various statement types (e.g., print, variable declaration, loops,
  * conditionals, input) and expression types (e.g., binary, unary, literals,
  * variables, assignments).
  *
- * It includes logic for type checking, value conversion, and handling runtime
- * errors. It also manages user input through the TextArea, pausing execution
- * when an 'input' statement is encountered and resuming upon user entry.
+ * Values are kept as primitives: each expression is evaluated by the method for
+ * its static type and variables live in the Environment's long[] frames.
+ * It includes logic for value conversion and handling runtime errors.
+ * It does not depend on JavaFX, so it can run headless; an 'input'
+ * statement blocks until the InputSource provides the next line.
  */
 
 package com.example.bisayaplusplus.interpreter;
 
 import com.example.bisayaplusplus.exception.RuntimeError;
-import com.example.bisayaplusplus.exception.TypeError;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
 import com.example.bisayaplusplus.lexer.Token;
 import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.optimizer.CountedLoops;
+import com.example.bisayaplusplus.parser.DataType;
 import com.example.bisayaplusplus.parser.Expr;
 import com.example.bisayaplusplus.parser.Stmt;
-import javafx.application.Platform;
-import javafx.scene.control.TextArea;
-import javafx.scene.input.KeyCode;
-import java.util.*;
-import java.util.concurrent.CompletableFuture;
-
-public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object>{
-    private final List<Stmt> statements;
-    private Environment environment;
-    private final TextArea taOutput;
-    private String currentOutput;
-    private boolean shouldStop;
-
-    public Interpreter (List<Stmt> statements, boolean addedListener, TextArea taOutput){
-        this.statements = statements;
-        environment = new Environment();
-        shouldStop = false;
-        this.taOutput = taOutput;
-
-        if (!addedListener){
-            // Listener to keep cursor at the end and prevent edits to existing text
-            taOutput.textProperty().addListener((obs, oldText, newText) -> {
-                // If user tries to delete or modify the locked part
-                if (currentOutput != null){
-                    if(!newText.startsWith(currentOutput)) {
-                        taOutput.setText(oldText); // revert
-                    } else {
-                        // Allow typing only after the locked text
-                        String typed = newText.substring(currentOutput.length());
-                        taOutput.setText(currentOutput + typed);
-                    }
-                }
-
-                // Force cursor to end
-                taOutput.positionCaret(taOutput.getText().length());
-            });
-        }
+import java.util.IdentityHashMap;
+import java.util.Map;
 
-        // to prevent mouse clicks
-        taOutput.setOnMouseClicked(e -> {
-            if (currentOutput != null && taOutput.getCaretPosition() < currentOutput.length()) {
-                taOutput.positionCaret(taOutput.getText().length());
-            }
-        });
+public class Interpreter implements Engine, Expr.Visitor<Object>, Stmt.Visitor<Object>{
+    // back edges a loop takes in the tree before the tiered Interpreter compiles it
+    public static final int HOT_LOOP_THRESHOLD = 1000;
 
+    private final Program program;
+    private final Environment environment;
+    private final OutputSink output;
+    private final InputSource input;
+    private volatile boolean shouldStop;
 
-        taOutput.setOnKeyPressed(e -> {
-            if (e.getCode() == KeyCode.ENTER){
-                e.consume(); // prevent newline in TextArea
+    // tiering: 0 keeps every loop in the tree
+    private final int hotLoopThreshold;
+    private final Map<Stmt, Integer> backEdges = new IdentityHashMap<>();
+    private final Map<Stmt, ClosureEngine.Action> compiledLoops = new IdentityHashMap<>();
+    private volatile ClosureEngine loopCompiler;
 
-                String lastLine = getInput(currentOutput);
+    public Interpreter (Program program, OutputSink output, InputSource input){
+        this(program, output, input, 0);
+    }
 
-                if (inputFuture != null && !inputFuture.isDone())
-                    inputFuture.complete(lastLine);
-            }
-        });
+    /*
+     * With a hotLoopThreshold above 0 the Interpreter counts the back edges of
+     * every loop, and once a loop has taken that many it is compiled by the
+     * ClosureEngine. The compiled loop takes over right at the back edge, on
+     * the same Environment, so the iteration it is in carries on where the tree
+     * left off; every later run of the loop starts in the compiled code.
+     */
+    public Interpreter (Program program, OutputSink output, InputSource input, int hotLoopThreshold){
+        this.program = program;
+        environment = new Environment(program.globals);
+        shouldStop = false;
+        this.output = output;
+        this.input = input;
+        this.hotLoopThreshold = hotLoopThreshold;
     }
 
     // function for interpreting
     // goes through all the statements to interpret
+    @Override
     public void interpret(){
-        for (Stmt stmt : statements){
+        for (Stmt stmt : program.statements){
             execute(stmt);
         }
-
-        currentOutput = null;
     }
 
+    @Override
     public void stopInterpreting(){
         shouldStop = true;
+
+        ClosureEngine compiler = loopCompiler;
+        if (compiler != null) compiler.stopInterpreting();
     }
 
+    // INTERPRETING EXPRESSIONS
+    /*
+     * The visitor methods are the generic path and return boxed values.
+     * The interpreter itself evaluates every expression with the method for
+     * its static type (evaluateInt, evaluateDouble, evaluateChar,
+     * evaluateBoolean, evaluateString), which return primitives, so numbers,
+     * characters and booleans are never boxed while the program runs.
+     */
     @Override
     public Object visitAssignExpr(Expr.Assign expr) {
-        Object value = evaluate(expr.value);
-        String valueDataType = getValueDataType(expr.value, value);
-        String destType = environment.getType(expr.name); // class for the destination variable
-        value = getAdjustedValue(expr.value, value, expr.name, destType, valueDataType);
-
-        environment.assign(expr.name, value);
-        return value;
+        return evaluate(expr);
     }
 
-    // INTERPRETING EXPRESSIONS
     @Override
     public Object visitBinaryExpr(Expr.Binary expr) {
-        Object left = evaluate(expr.left);
-        Object right = evaluate(expr.right);
-        Number result = null;
-
-        switch (expr.operator.getTokenType()){
-            case MINUS:
-                checkNumberOperands(expr.operator, left, right, "SUBTRACTION");
-                result = ((Number) left).doubleValue() -  ((Number) right).doubleValue();
-                break;
-            case DIVIDE:
-                checkNumberOperands(expr.operator, left, right, "DIVISION");
-                result = ((Number) left).doubleValue() /  ((Number) right).doubleValue();
-                break;
-            case MODULO:
-                checkNumberOperands(expr.operator, left, right, "MODULO");
-                result = ((Number) left).doubleValue() % ((Number) right).doubleValue();
-                break;
-            case MULTIPLY:
-                checkNumberOperands(expr.operator, left, right, "MULTIPLICATION");
-                result = ((Number) left).doubleValue() *  ((Number) right).doubleValue();
-                break;
-            case PLUS:
-                if (left instanceof Number && right instanceof Number){
-                    result = ((Number) left).doubleValue() +  ((Number) right).doubleValue();
-                    break;
-                }
+        return evaluate(expr);
+    }
 
-                if (left instanceof String && right instanceof String){
-                    return left + (String) right;
-                }
+    @Override
+    public Object visitGroupingExpr(Expr.Grouping expr) {
+        return evaluate(expr);
+    }
 
-                throw new RuntimeError(expr.operator, "ADDITION: Operands must be of the same data type.");
-            case CONCAT: return stringify(left) + stringify(right);
-        }
+    @Override
+    public Object visitLiteralExpr(Expr.Literal expr) {
+        return expr.value;
+    }
 
-        if (left instanceof Double || right instanceof Double){
-            return result;
-        }
+    @Override
+    public Object visitLogicalExpr(Expr.Logical expr) {
+        return evaluate(expr);
+    }
 
-        if (result != null){
-            return result.intValue();
-        }
+    @Override
+    public Object visitUnaryExpr(Expr.Unary expr) {
+        return evaluate(expr);
+    }
 
-        return null;
+    @Override
+    public Object visitVariableExpr(Expr.Variable expr) {
+        return evaluate(expr);
     }
 
     @Override
-    public Object visitGroupingExpr(Expr.Grouping expr) {
-        return evaluate(expr.expression);
+    public Object visitIncrementOrDecrementExpr(Expr.IncrementOrDecrement expr) {
+        return evaluate(expr);
     }
 
     @Override
-    public Object visitLiteralExpr(Expr.Literal expr) {
-        if (expr.dataType.equals("Boolean")){
-            if (expr.value.equals("OO")) return true;
-            if (expr.value.equals("DILI")) return false;
+    public Object visitConvertExpr(Expr.Convert expr) {
+        return evaluate(expr);
+    }
+
+    private Object evaluate(Expr expr){
+        switch (expr.type){
+            case NUMERO: return evaluateInt(expr);
+            case TIPIK: return evaluateDouble(expr);
+            case LETRA: return evaluateChar(expr);
+            case TINUOD: return evaluateBoolean(expr);
+            default: return evaluateString(expr);
         }
-        return expr.value;
     }
 
-    @Override
-    public Object visitLogicalExpr(Expr.Logical expr) {
-        TokenType opType = (expr.operator).getTokenType();
-        Object right = evaluate(expr.right);
+    // evaluates an expression whose value isn't used, without boxing it
+    private void evaluateForEffect(Expr expr){
+        switch (expr.type){
+            case NUMERO: evaluateInt(expr); break;
+            case TIPIK: evaluateDouble(expr); break;
+            case LETRA: evaluateChar(expr); break;
+            case TINUOD: evaluateBoolean(expr); break;
+            default: evaluateString(expr);
+        }
+    }
 
-        if (opType == TokenType.LOGIC_NOT){
-            return !isTruthy(right);
+    private int evaluateInt(Expr expr){
+        if (expr instanceof Expr.Variable){
+            return environment.getInt((Expr.Variable) expr);
         }
 
-        Object left = evaluate(expr.left);
-        switch (opType){
-            case LOGIC_OR: if (isTruthy(left)) return left;
-            case LOGIC_AND: if (!isTruthy(left)) return left; return right;
-            case GREATER_THAN:
-                checkNumberOperands(expr.operator, left, right, "COMPARISON (GREATER_THAN)");
-                return ((Number) left).doubleValue() >  ((Number) right).doubleValue();
-            case GREATER_OR_EQUAL:
-                checkNumberOperands(expr.operator, left, right, "COMPARISON (GREATER_OR_EQUAL)");
-                return ((Number) left).doubleValue() >=  ((Number) right).doubleValue();
-            case LESSER_THAN:
-                checkNumberOperands(expr.operator, left, right, "COMPARISON (LESSER_THAN)");
-                return ((Number) left).doubleValue() <  ((Number) right).doubleValue();
-            case LESSER_OR_EQUAL:
-                checkNumberOperands(expr.operator, left, right, "COMPARISON (LESSER_OR_EQUAL)");
-                return ((Number) left).doubleValue() <=  ((Number) right).doubleValue();
-            case NOT_EQUAL: return !(left == right);
-            case DOUBLE_EQUAL: return (left == right);
+        if (expr instanceof Expr.Literal){
+            return (Integer) ((Expr.Literal) expr).value;
         }
 
-        return null;
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            int left = evaluateInt(binary.left);
+            int right = evaluateInt(binary.right);
+            return arithmetic(binary.operator, left, right);
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return evaluateInt(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            int right = evaluateInt(unary.right);
+            if (unary.operator.getTokenType() != TokenType.NEGATIVE) return right;
+            if (right == Integer.MIN_VALUE) throw overflow(unary.operator);
+            return -right;
+        }
+
+        if (expr instanceof Expr.Convert){
+            // TIPIK -> NUMERO
+            return (int) evaluateDouble(((Expr.Convert) expr).expression);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            int value = evaluateInt(assign.value);
+            environment.setInt(assign.depth, assign.slot, value);
+            return value;
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+            Expr.Variable var = increment.var;
+            int value = environment.getInt(var);
+            if (value == (delta(increment) > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) throw overflow(increment.operator);
+            int nxtVal = value + delta(increment);
+
+            environment.setInt(var.depth, var.slot, nxtVal);
+            return increment.isPrefix ? value : nxtVal;
+        }
+
+        throw unexpected(expr);
     }
 
-    @Override
-    public Object visitUnaryExpr(Expr.Unary expr) {
-        Object right = evaluate(expr.right);
-
-        switch (expr.operator.getTokenType()){
-            case NEGATIVE:
-                checkNumberOperand(expr.operator, right);
-                if (right instanceof Integer){
-                    return -(Integer) right;
-                } else if (right instanceof Double){
-                    return -(Double) right;
-                }
-            case POSITIVE:
-                checkNumberOperand(expr.operator, right);
-                if (right instanceof Integer){
-                    return +(Integer) right;
-                } else if (right instanceof Double){
-                    return +(Double) right;
-                }
+    private double evaluateDouble(Expr expr){
+        if (expr instanceof Expr.Variable){
+            return environment.getDouble((Expr.Variable) expr);
         }
 
-        return null;
+        if (expr instanceof Expr.Literal){
+            return (Double) ((Expr.Literal) expr).value;
+        }
+
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            double left = evaluateDouble(binary.left);
+            double right = evaluateDouble(binary.right);
+            return arithmetic(binary.operator, left, right);
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return evaluateDouble(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            double right = evaluateDouble(unary.right);
+            return unary.operator.getTokenType() == TokenType.NEGATIVE ? -right : right;
+        }
+
+        if (expr instanceof Expr.Convert){
+            // NUMERO -> TIPIK
+            return evaluateInt(((Expr.Convert) expr).expression);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            double value = evaluateDouble(assign.value);
+            environment.setDouble(assign.depth, assign.slot, value);
+            return value;
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+            Expr.Variable var = increment.var;
+            double value = environment.getDouble(var);
+            double nxtVal = value + delta(increment);
+
+            environment.setDouble(var.depth, var.slot, nxtVal);
+            return increment.isPrefix ? value : nxtVal;
+        }
+
+        throw unexpected(expr);
     }
 
-    @Override
-    public Object visitVariableExpr(Expr.Variable expr) {
-        return environment.get(expr.name);
+    private char evaluateChar(Expr expr){
+        if (expr instanceof Expr.Variable){
+            return environment.getChar((Expr.Variable) expr);
+        }
+
+        if (expr instanceof Expr.Literal){
+            return (Character) ((Expr.Literal) expr).value;
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return evaluateChar(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            char value = evaluateChar(assign.value);
+            environment.setChar(assign.depth, assign.slot, value);
+            return value;
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+            Expr.Variable var = increment.var;
+            char value = environment.getChar(var);
+            char nxtVal = (char) (value + delta(increment));
+
+            environment.setChar(var.depth, var.slot, nxtVal);
+            return increment.isPrefix ? value : nxtVal;
+        }
+
+        throw unexpected(expr);
     }
 
-    @Override
-    public Object visitIncrementOrDecrementExpr(Expr.IncrementOrDecrement expr) {
-        Token variable = ((Expr.Variable) expr.var).name;
-        Object value = environment.get(variable);
-        int delta = (expr.operator.getTokenType() == TokenType.INCREMENT) ? +1 : -1;
-        Object nxtVal = switch (value.getClass().getSimpleName()) {
-            case "Integer" -> (Integer) value + delta;
-            case "Double" -> (Double) value + delta;
-            case "Character" -> (Character) value + delta;
-            default -> throw new RuntimeError(variable, "Cannot " + expr.operator.getTokenType() + " this variable.");
-        };
-
-        environment.assign(variable, nxtVal);
-
-        if (expr.isPrefix){
+    private boolean evaluateBoolean(Expr expr){
+        if (expr instanceof Expr.Logical){
+            return evaluateLogical((Expr.Logical) expr);
+        }
+
+        if (expr instanceof Expr.Variable){
+            return environment.getBoolean((Expr.Variable) expr);
+        }
+
+        if (expr instanceof Expr.Literal){
+            return (Boolean) ((Expr.Literal) expr).value;
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return evaluateBoolean(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Convert){
+            return isTruthy(((Expr.Convert) expr).expression);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            boolean value = evaluateBoolean(assign.value);
+            environment.setBoolean(assign.depth, assign.slot, value);
             return value;
-        } else {
-            return nxtVal;
         }
+
+        throw unexpected(expr);
     }
 
-    private boolean isTruthy(Object object){
-        if (object == null) return false;
-        if (object instanceof Boolean) return (boolean) object;
-        if (object instanceof String){
-            if (object.equals("OO")){
-                return true;
-            }
+    // text: string literals, '&' and values converted for printing
+    private String evaluateString(Expr expr){
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            String left = evaluateString(binary.left);
+            return left + evaluateString(binary.right);
+        }
+
+        if (expr instanceof Expr.Convert){
+            return stringify(((Expr.Convert) expr).expression);
+        }
 
-            return !object.equals("DILI");
+        if (expr instanceof Expr.Literal){
+            return (String) ((Expr.Literal) expr).value;
         }
-        if (object instanceof Number){
-            if (((Number) object).doubleValue() == 0){
-                return false;
+
+        if (expr instanceof Expr.Grouping){
+            return evaluateString(((Expr.Grouping) expr).expression);
+        }
+
+        throw unexpected(expr);
+    }
+
+    /*
+     * UG, O and DILI get TINUOD operands, comparisons two operands of the same
+     * type. Operands are evaluated left to right, and UG and O only evaluate
+     * their right operand if the left one doesn't decide the result.
+     */
+    private boolean evaluateLogical(Expr.Logical expr){
+        TokenType opType = (expr.operator).getTokenType();
+
+        switch (opType){
+            case LOGIC_NOT: return !evaluateBoolean(expr.right);
+            case LOGIC_OR: return evaluateBoolean(expr.left) || evaluateBoolean(expr.right);
+            case LOGIC_AND: return evaluateBoolean(expr.left) && evaluateBoolean(expr.right);
+        }
+
+        switch (expr.left.type){
+            case NUMERO: {
+                int left = evaluateInt(expr.left);
+                return compare(opType, left, evaluateInt(expr.right));
+            }
+            case TIPIK: {
+                double left = evaluateDouble(expr.left);
+                return compare(opType, left, evaluateDouble(expr.right));
+            }
+            case LETRA: {
+                char left = evaluateChar(expr.left);
+                return isEqual(opType, left == evaluateChar(expr.right));
+            }
+            case TINUOD: {
+                boolean left = evaluateBoolean(expr.left);
+                return isEqual(opType, left == evaluateBoolean(expr.right));
             }
+            default: {
+                String left = evaluateString(expr.left);
+                return isEqual(opType, left.equals(evaluateString(expr.right)));
+            }
+        }
+    }
+
+    /*
+     * NUMERO arithmetic is exact 32-bit integer math. A result that doesn't
+     * fit and a division or modulo by zero are runtime errors.
+     */
+    private int arithmetic(Token operator, int left, int right){
+        try {
+            switch (operator.getTokenType()){
+                case PLUS: return Math.addExact(left, right);
+                case MINUS: return Math.subtractExact(left, right);
+                case MULTIPLY: return Math.multiplyExact(left, right);
+                case DIVIDE:
+                    if (right == 0) throw new RuntimeError(operator, "Division by zero.");
+                    if (left == Integer.MIN_VALUE && right == -1) throw overflow(operator);
+                    return left / right;
+                case MODULO:
+                    if (right == 0) throw new RuntimeError(operator, "Modulo by zero.");
+                    return left % right;
+            }
+        } catch (ArithmeticException e) {
+            throw overflow(operator);
         }
 
-        return true;
+        throw new RuntimeError(operator, "Unknown operator " + operator.getTokenType() + ".");
     }
 
-    private Object evaluate(Expr expr){
-        return expr.accept(this);
+    static RuntimeError overflow(Token operator){
+        return new RuntimeError(operator, "Integer overflow. The result does not fit in a NUMERO.");
+    }
+
+    // TIPIK arithmetic follows IEEE 754, dividing by zero gives an infinity or NaN
+    private double arithmetic(Token operator, double left, double right){
+        switch (operator.getTokenType()){
+            case MINUS: return left - right;
+            case DIVIDE: return left / right;
+            case MODULO: return left % right;
+            case MULTIPLY: return left * right;
+            case PLUS: return left + right;
+        }
+
+        throw new RuntimeError(operator, "Unknown operator " + operator.getTokenType() + ".");
+    }
+
+    // ints are exact as doubles, so NUMERO is compared the same way
+    private boolean compare(TokenType opType, double left, double right){
+        switch (opType){
+            case GREATER_THAN: return left > right;
+            case GREATER_OR_EQUAL: return left >= right;
+            case LESSER_THAN: return left < right;
+            case LESSER_OR_EQUAL: return left <= right;
+            case NOT_EQUAL: return left != right;
+            default: return left == right;
+        }
+    }
+
+    private boolean isEqual(TokenType opType, boolean equal){
+        return (opType == TokenType.NOT_EQUAL) != equal;
     }
 
-    private void checkNumberOperand(Token operator, Object operand){
-        if (operand instanceof Double || operand instanceof Integer) return;
-        throw new RuntimeError(operator, "Operand must be a number.");
+    private int delta(Expr.IncrementOrDecrement expr){
+        return (expr.operator.getTokenType() == TokenType.INCREMENT) ? +1 : -1;
     }
 
-    private void checkNumberOperands(Token operator, Object left, Object right, String message){
-        if (left instanceof Number && right instanceof Number) return;
-        throw new RuntimeError(operator, message + ": Operands must be numbers. " + left + " = " + left.getClass() + " ; " + right + " = " + right.getClass());
+    // a value used as a condition: 0 and "DILI" are false
+    private boolean isTruthy(Expr expr){
+        switch (expr.type){
+            case NUMERO: return evaluateInt(expr) != 0;
+            case TIPIK: return evaluateDouble(expr) != 0;
+            case LETRA: evaluateChar(expr); return true;
+            case TINUOD: return evaluateBoolean(expr);
+            default: return !evaluateString(expr).equals("DILI");
+        }
+    }
+
+    private String stringify(Expr expr) {
+        switch (expr.type){
+            case NUMERO: return Integer.toString(evaluateInt(expr));
+            case TIPIK: return Double.toString(evaluateDouble(expr));
+            case LETRA: return String.valueOf(evaluateChar(expr));
+            case TINUOD: return evaluateBoolean(expr) ? "OO" : "DILI";
+            default: return evaluateString(expr);
+        }
+    }
+
+    private IllegalStateException unexpected(Expr expr){
+        return new IllegalStateException("Unexpected " + expr.type + " expression " + expr.getClass().getSimpleName());
+    }
+
+    // conditions are converted to TINUOD by the TypeChecker
+    private boolean isTrue(Expr condition){
+        return evaluateBoolean(condition);
     }
 
     // INTERPRETING STATEMENTS
     public void execute(Stmt stmt){
         stmt.accept(this);
     }
-    public boolean executeElIf(Stmt stmt){
-        return (boolean) stmt.accept(this);
-    }
 
     @Override
     public Void visitBlockStmt(Stmt.Block stmt) {
-        executeBlock(stmt.statements, new Environment(environment, new SymbolTable(environment.symbolTable)));
-        return null;
-    }
+        environment.enter(stmt.scope);
 
-    private void executeBlock(List<Stmt> statements, Environment environment){
-        Environment previous = this.environment;
-
-        try {
-            this.environment = environment;
-
-            for (Stmt stmt : statements){
-                execute(stmt);
-            }
-        } finally {
-            this.environment = previous;
+        for (Stmt statement : stmt.statements){
+            execute(statement);
         }
+        return null;
     }
 
     @Override
     public Void visitExpressionStmt(Stmt.Expression stmt) {
-        evaluate(stmt.expression);
+        evaluateForEffect(stmt.expression);
         return null;
     }
 
+    // the branches are tried in order, the first one whose condition holds runs
     @Override
     public Object visitIfStmt(Stmt.If stmt) {
-        boolean isIfDone = false;
-        if (isTruthy(evaluate(stmt.condition))){
+        if (isTrue(stmt.condition)){
             execute(stmt.thenBranch);
+            return null;
+        }
 
-            isIfDone = true;
-        } else if (stmt.elseIfBranch != null) {
-            for (Stmt.ElseIf elif: stmt.elseIfBranch){
-                if (executeElIf(elif)){
-                    isIfDone = true;
-                    break;
+        if (stmt.elseIfBranch != null){
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                if (isTrue(elif.condition)){
+                    execute(elif.thenBranch);
+                    return null;
                 }
             }
         }
 
-        if (stmt.elseBranch != null && !isIfDone){
+        if (stmt.elseBranch != null){
             execute(stmt.elseBranch);
         }
 
@@ -343,7 +531,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object>{
 
     @Override
     public Object visitElseIfStmt(Stmt.ElseIf stmt) {
-        if (isTruthy(evaluate(stmt.condition))){
+        if (isTrue(stmt.condition)){
             execute(stmt.thenBranch);
             return true;
         }
@@ -351,192 +539,204 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Object>{
         return false;
     }
 
+    // one lookup in the table instead of a condition per branch
     @Override
-    public Void visitPrintStmt(Stmt.Print stmt) {
-        Object value = evaluate(stmt.expression);
-
-        String output = (value == null ? "null" :  stringify(value));
-
-        Platform.runLater(() -> {
-            taOutput.appendText(output);
-        });
-
-        // Give JavaFX time to update
-        try {
-            Thread.sleep(10); // Short sleep to allow UI thread to catch up
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Restore interrupted status
+    public Object visitSwitchStmt(Stmt.Switch stmt) {
+        int key = (stmt.subject.type == DataType.LETRA) ? evaluateChar(stmt.subject) : evaluateInt(stmt.subject);
+        int branch = stmt.table.indexOf(key);
+
+        if (branch >= 0){
+            execute(stmt.branches.get(branch));
+        } else if (stmt.defaultBranch != null){
+            execute(stmt.defaultBranch);
         }
 
         return null;
     }
 
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        output.write(evaluateString(stmt.expression));
+        return null;
+    }
+
     @Override
     public Object visitForLoopStmt(Stmt.ForLoop stmt) {
-        Environment prev = this.environment;
-        Environment forLoopEnv = new Environment(prev, new SymbolTable(prev.symbolTable));
+        // the loop variable gets a frame of its own, the body a fresh one every iteration
+        environment.enter(stmt.scope);
 
-        this.environment = forLoopEnv;
         // initialize
         execute(stmt.initialization);
 
-        SymbolTable symbolTable = forLoopEnv.symbolTable;
+        iterate(stmt);
+        return null;
+    }
+
+    // the iterations of a ALANG SA, from its condition on
+    private void iterate(Stmt.ForLoop stmt){
+        ClosureEngine.Action compiled = compiledLoops.get(stmt);
+        if (compiled != null){
+            compiled.run();
+            return;
+        }
 
-        while (isTruthy(evaluate(stmt.condition))){
+        int budget = backEdgeBudget(stmt), count = 0;
+        while (isTrue(stmt.condition)){
             if (shouldStop) break;
 
-            // restart variables in forLoopEnv
-            environment.symbolTable = symbolTable;
-            executeBlock(((Stmt.Block) stmt.body).statements, this.environment);
+            execute(stmt.body);
             execute(stmt.update);
 
-            // clear variables in forLoopEnv
-            symbolTable = new SymbolTable(symbolTable);
+            if (budget > 0 && ++count == budget){
+                tierUp(stmt).run();
+                return;
+            }
         }
 
-        this.environment = prev;
-        return null;
+        countBackEdges(stmt, count);
     }
 
+    /*
+     * A ALANG SA that counts from one bound to another runs a precomputed
+     * number of iterations on a local int, which is only stored for the body
+     * to read, instead of evaluating the condition and the update each time.
+     */
     @Override
-    public Object visitWhileStmt(Stmt.While stmt) {
-        while (isTruthy(evaluate(stmt.condition))){
-            if (shouldStop) break;
-            execute(stmt.body);
+    public Object visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        Stmt.ForLoop loop = stmt.loop;
+        environment.enter(loop.scope);
+        execute(loop.initialization);
+
+        ClosureEngine.Action compiled = compiledLoops.get(stmt);
+        if (compiled != null){
+            compiled.run();
+            return null;
         }
-        return null;
-    }
 
-    @Override
-    public Object visitDoWhileStmt(Stmt.DoWhile stmt) {
-        do {
+        // the counter was just assigned, so reading it can't fail before the limit does
+        int limit = evaluateInt(stmt.limit);
+        int value = environment.getInt(stmt.counter);
+        long trips = CountedLoops.tripCount(value, limit, stmt.step, stmt.inclusive);
+        if (trips < 0){
+            iterate(loop);
+            return null;
+        }
+
+        int depth = stmt.counter.depth, slot = stmt.counter.slot;
+        int budget = backEdgeBudget(stmt), count = 0;
+        for (long trip = 0; trip < trips; trip++){
             if (shouldStop) break;
-            execute(stmt.body);
-        } while(isTruthy(evaluate(stmt.condition)));
 
+            environment.setInt(depth, slot, value);
+            execute(loop.body);
+            value += stmt.step;
+
+            if (budget > 0 && ++count == budget){
+                // the compiled loop counts the rest of the iterations from the counter
+                environment.setInt(depth, slot, value);
+                tierUp(stmt).run();
+                return null;
+            }
+        }
+
+        environment.setInt(depth, slot, value);
+        countBackEdges(stmt, count);
         return null;
     }
 
     @Override
-    public Void visitVarStmt(Stmt.Var stmt) {
-        Object value = null;
-        if (stmt.initializer != null){
-            value = evaluate(stmt.initializer);
+    public Object visitWhileStmt(Stmt.While stmt) {
+        ClosureEngine.Action compiled = compiledLoops.get(stmt);
+        if (compiled != null){
+            compiled.run();
+            return null;
+        }
 
-            final var valueDataType = getValueDataType(stmt.initializer, value);
+        int budget = backEdgeBudget(stmt), count = 0;
+        while (isTrue(stmt.condition)){
+            if (shouldStop) break;
+            execute(stmt.body);
 
-            value = getAdjustedValue(stmt.initializer, value, stmt.name, stmt.dataType, valueDataType);
+            if (budget > 0 && ++count == budget){
+                tierUp(stmt).run();
+                return null;
+            }
         }
 
-        environment.define(stmt.name, stmt.dataType, value);
+        countBackEdges(stmt, count);
         return null;
     }
 
-    private CompletableFuture<String> inputFuture;
     @Override
-    public Object visitInputStmt(Stmt.Input stmt) {
-        List<Token> variables = stmt.variables;
-        currentOutput = taOutput.getText();
-        taOutput.setEditable(true);
-
-        String input = awaitInput();
-        taOutput.setEditable(false);
-
-        String[] inputs = input.split(",",-1);
-
-        if (inputs.length < variables.size()){
-            throw new RuntimeError(variables.get(0), "Received less inputs than needed. Expect " + variables.size() + ", but received " + inputs.length + ".");
+    public Object visitDoWhileStmt(Stmt.DoWhile stmt) {
+        ClosureEngine.Action compiled = compiledLoops.get(stmt);
+        if (compiled != null){
+            compiled.run();
+            return null;
         }
 
-        if (inputs.length > variables.size()){
-            throw new RuntimeError(variables.get(0), "Received more inputs than needed. Received " + inputs.length + ", expect " + variables.size());
-        }
+        int budget = backEdgeBudget(stmt), count = 0;
+        do {
+            if (shouldStop) break;
+            execute(stmt.body);
+        } while(isTrue(stmt.condition) && !(budget > 0 && ++count == budget));
 
-        for (int i = 0; i < variables.size(); i++){
-            environment.assignFromPrint(variables.get(i), inputs[i]);
+        if (budget > 0 && count == budget){
+            // the condition held, so the compiled loop goes on with the next iteration
+            tierUp(stmt).run();
+            return null;
         }
+
+        countBackEdges(stmt, count);
         return null;
     }
 
-    private String awaitInput(){
-        inputFuture = new CompletableFuture<>();
-        return inputFuture.join();
+    // TIERING
+    // the back edges the loop can still take before it is compiled, 0 if it never is
+    private int backEdgeBudget(Stmt loop){
+        if (hotLoopThreshold <= 0) return 0;
+        return hotLoopThreshold - backEdges.getOrDefault(loop, 0);
     }
 
-    private String getInput(String currentOutput){
-        String input = taOutput.getText();
-        String adjustedInput = input.substring(currentOutput.length());
-
-        return adjustedInput.replaceAll("^[\\n\\r]+", "")    // remove leading newlines
-                .replaceAll("[\\n\\r]+$", "")    // remove trailing newlines
-                .trim();
+    private void countBackEdges(Stmt loop, int count){
+        if (hotLoopThreshold > 0 && count > 0) backEdges.merge(loop, count, Integer::sum);
     }
 
-    /*
-     * Returns the data type of the assigned value to a variable
-     * @param valueExpr - the initializer part of variable declaration or assignment declarations e.g. DATATYPE IDENTIFIER = INITIALIZER (NUMERO C = 5)
-     * @param value     - evaluated value of the initializer. in example above, it would be 5
-     */
-    private String getValueDataType(Expr valueExpr, Object value) {
-        String valueDataType;
-
-        if (valueExpr instanceof Expr.Literal){
-            valueDataType = ((Expr.Literal) valueExpr).dataType;
-        } else {
-            valueDataType = value.getClass().getSimpleName();
+    // compiles the loop from its condition on and runs it from now on
+    private ClosureEngine.Action tierUp(Stmt loop){
+        ClosureEngine compiler = loopCompiler;
+        if (compiler == null){
+            compiler = new ClosureEngine(environment, output, input);
+            loopCompiler = compiler;
+            if (shouldStop) compiler.stopInterpreting();
         }
 
-        return valueDataType;
+        ClosureEngine.Action compiled = compiler.compileLoop(loop);
+        compiledLoops.put(loop, compiled);
+        backEdges.remove(loop);
+        return compiled;
     }
 
-    /*
-     * Returns the adjusted value to be assigned to a variable based on its declared data type.
-     * Throws a TypeError if the value's type is incompatible with the variable's declared type.
-     * @param valueExpr       - the expression representing the value to assign e.g. (4+5), 5
-     * @param origValue       - original evaluated value of the expression
-     * @param variable        - the token representing the variable
-     * @param varDataType     - declared data type of the variable
-     */
-    private Object getAdjustedValue(Expr valueExpr, Object origValue, Token variable, String varDataType, String valueDataType){
-        Object value = origValue;
-
-        if (varDataType.equals("Double") && valueDataType.equals("Integer")){
-            value = ((Number) origValue).doubleValue();
-        } else if (varDataType.equals("Integer") && valueDataType.equals("Double") && !(valueExpr instanceof Expr.Literal)){
-            value = ((Number) origValue).intValue();
-        } else if (valueDataType.equals("Boolean") && !(valueExpr instanceof Expr.Literal)){
-            if ((boolean) origValue){
-                value = "OO";
-            } else {
-                value = "DILI";
-            }
-        } else if (!varDataType.equals(valueDataType)) {
-            throw new TypeError(variable, bisTypes.get(valueDataType), variable.getLiteral().toString(), bisTypes.get(varDataType));
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        Expr initializer = stmt.initializer;
+        if (initializer == null) return null;
+
+        // the TypeChecker converted the initializer to the variable's type
+        switch (initializer.type){
+            case NUMERO: environment.setInt(stmt.depth, stmt.slot, evaluateInt(initializer)); break;
+            case TIPIK: environment.setDouble(stmt.depth, stmt.slot, evaluateDouble(initializer)); break;
+            case LETRA: environment.setChar(stmt.depth, stmt.slot, evaluateChar(initializer)); break;
+            case TINUOD: environment.setBoolean(stmt.depth, stmt.slot, evaluateBoolean(initializer)); break;
         }
-
-        return value;
+        return null;
     }
 
-    private Map<String, String> bisTypes = new HashMap<>(){
-        {
-            put("Integer", "NUMERO");
-            put("Double", "TIPIK");
-            put("Character", "LETRA");
-            put("Boolean", "TINUOD");
-            put("String", "PULONG");
-        }
-    };
-
-    private String stringify(Object object) {
-        if (object == null) return "null";
-
-        if (object instanceof Boolean) return (boolean) object ? "OO" : "DILI";
-
-        if (object instanceof Double) return object.toString();
-        if (object instanceof Integer) return object.toString();
-        if (object instanceof Character) return object.toString();
-        if (object instanceof String) return (String) object;
-
-        return object.toString();
+    @Override
+    public Object visitInputStmt(Stmt.Input stmt) {
+        // prompts printed before DAWAT must be visible before waiting for input
+        output.flush();
+        environment.assignFromInput(stmt.variables, input.readLine());
+        return null;
     }
 }
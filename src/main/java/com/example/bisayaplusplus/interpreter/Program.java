@@ -0,0 +1,40 @@
+/* PROGRAM
+ * A parsed program that went through the static analysis: the top-level
+ * statements, with every variable bound to its (depth, slot) and every
+ * expression typed, and the layout of the global variables.
+ */
+
+package com.example.bisayaplusplus.interpreter;
+
+import com.example.bisayaplusplus.optimizer.PassManager;
+import com.example.bisayaplusplus.parser.Scope;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.List;
+
+public class Program {
+    public final List<Stmt> statements;
+    public final Scope globals;
+
+    public Program(List<Stmt> statements, Scope globals){
+        this.statements = statements;
+        this.globals = globals;
+    }
+
+    /*
+     * Resolves, type checks and optimizes parsed statements.
+     * Throws a RuntimeError or TypeError for the first error found.
+     */
+    public static Program analyze(List<Stmt> statements){
+        return analyze(statements, new PassManager(PassManager.DEFAULT_LEVEL));
+    }
+
+    // the same, with the optimization passes picked by the pass manager
+    public static Program analyze(List<Stmt> statements, PassManager passes){
+        Resolver resolver = new Resolver();
+        resolver.resolve(statements);
+
+        // the type checker and the optimizer rewrite the tree, so each copy is resolved again
+        List<Stmt> checked = new TypeChecker().check(statements);
+        return passes.run(resolver.resolve(checked), resolver);
+    }
+}
@@ -0,0 +1,249 @@
+/* RESOLVER
+ * This class walks the parsed program once, before it is executed, and binds
+ * every variable reference (reads, assignments, increments and DAWAT targets)
+ * to the declaration it refers to.
+ *
+ * Each scope (the program itself, a PUNDOK block, the head of an ALANG SA loop)
+ * is a SymbolTable at a fixed lexical depth, and each MUGNA in it gets a slot.
+ * The depth and slot are stored on the AST nodes, so the interpreter reads and
+ * writes variables by indexing into array frames instead of looking up names.
+ * Each scope node gets a Scope descriptor with the layout of its frames.
+ *
+ * Undefined variables and redeclarations are reported here, so a program with
+ * such an error does not start running at all.
+ */
+
+package com.example.bisayaplusplus.interpreter;
+
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.List;
+
+public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    private SymbolTable symbolTable;
+
+    /*
+     * Resolves the whole program. Throws a RuntimeError for the first
+     * undefined or redeclared variable.
+     */
+    public Program resolve(List<Stmt> statements){
+        symbolTable = new SymbolTable(null);
+
+        for (Stmt stmt : statements){
+            resolve(stmt);
+        }
+
+        return new Program(statements, symbolTable.toScope());
+    }
+
+    private void resolve(Stmt stmt){
+        stmt.accept(this);
+    }
+
+    private void resolve(Expr expr){
+        expr.accept(this);
+    }
+
+    private void bind(Expr.Variable var){
+        Stmt.Var declaration = symbolTable.lookup(var.name);
+        var.declaration = declaration;
+        var.depth = declaration.depth;
+        var.slot = declaration.slot;
+    }
+
+    // RESOLVING EXPRESSIONS
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        resolve(expr.value);
+
+        Stmt.Var declaration = symbolTable.lookup(expr.name);
+        expr.declaration = declaration;
+        expr.depth = declaration.depth;
+        expr.slot = declaration.slot;
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        resolve(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        // the left operand of DILI is null
+        if (expr.left != null) resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        bind(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitIncrementOrDecrementExpr(Expr.IncrementOrDecrement expr) {
+        bind(expr.var);
+        return null;
+    }
+
+    @Override
+    public Void visitConvertExpr(Expr.Convert expr) {
+        resolve(expr.expression);
+        return null;
+    }
+
+    // RESOLVING STATEMENTS
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        SymbolTable previous = symbolTable;
+
+        try {
+            symbolTable = new SymbolTable(previous);
+
+            for (Stmt statement : stmt.statements){
+                resolve(statement);
+            }
+
+            stmt.scope = symbolTable.toScope();
+        } finally {
+            symbolTable = previous;
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.thenBranch);
+
+        if (stmt.elseIfBranch != null){
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                resolve(elif);
+            }
+        }
+
+        if (stmt.elseBranch != null) resolve(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitElseIfStmt(Stmt.ElseIf stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.thenBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitSwitchStmt(Stmt.Switch stmt) {
+        resolve(stmt.subject);
+        for (Stmt branch : stmt.branches){
+            resolve(branch);
+        }
+        if (stmt.defaultBranch != null) resolve(stmt.defaultBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    /*
+     * The loop variable lives in a scope of its own around the body,
+     * so the condition and the update see it but not the body's variables.
+     */
+    @Override
+    public Void visitForLoopStmt(Stmt.ForLoop stmt) {
+        SymbolTable previous = symbolTable;
+
+        try {
+            symbolTable = new SymbolTable(previous);
+
+            resolve(stmt.initialization);
+            resolve(stmt.condition);
+            resolve(stmt.update);
+
+            // the body gets a scope of its own, so its variables start over every
+            // iteration, but like before it can't redeclare the loop's variable
+            if (stmt.body instanceof Stmt.Block){
+                for (Stmt statement : ((Stmt.Block) stmt.body).statements){
+                    if (statement instanceof Stmt.Var) symbolTable.isDeclaredInAnyEnv(((Stmt.Var) statement).name);
+                }
+            }
+            resolve(stmt.body);
+
+            stmt.scope = symbolTable.toScope();
+        } finally {
+            symbolTable = previous;
+        }
+
+        return null;
+    }
+
+    // the counter and the limit are parts of the loop's condition
+    @Override
+    public Void visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        resolve(stmt.loop);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStmt(Stmt.DoWhile stmt) {
+        resolve(stmt.body);
+        resolve(stmt.condition);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        // the initializer can't see the variable it initializes
+        if (stmt.initializer != null) resolve(stmt.initializer);
+
+        symbolTable.define(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitInputStmt(Stmt.Input stmt) {
+        for (Expr.Variable var : stmt.variables){
+            bind(var);
+        }
+        return null;
+    }
+}
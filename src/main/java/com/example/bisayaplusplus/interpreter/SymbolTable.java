@@ -1,40 +1,51 @@
 /* SYMBOL TABLE
- * This class manages the storage and retrieval of variables and their associated
- * data types within a specific scope. It uses two HashMaps to store the variable
- * name along with its value and its data type, respectively.
+ * This class manages the variables declared within a specific scope while the
+ * Resolver walks the program, before anything is executed. It maps each variable
+ * name to its declaration (the MUGNA statement), which carries the data type.
  *
  * It supports nested scopes through an 'enclosing' SymbolTable, allowing for
- * variable shadowing and access to variables in outer scopes. Operations include
- * defining new variables, checking for redeclarations, retrieving variable values
- * and types, and assigning new values to existing variables.
+ * variable shadowing and access to variables in outer scopes. Every declaration
+ * gets the next free slot of its scope, so at run time a variable is found by
+ * its (depth, slot) pair instead of by its name.
  */
 
 package com.example.bisayaplusplus.interpreter;
 
 import com.example.bisayaplusplus.exception.RuntimeError;
 import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Scope;
+import com.example.bisayaplusplus.parser.Stmt;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SymbolTable {
-    private final Map<String, Object> values = new HashMap<>();
-    private final Map<String, String> dataTypes = new HashMap<>();
+    private final Map<String, Stmt.Var> declarations = new HashMap<>();
+    private final List<Stmt.Var> slots = new ArrayList<>();
     private final SymbolTable enclosing;
+    private final int depth;
 
     public SymbolTable(SymbolTable enclosing) {
         this.enclosing = enclosing;
+        this.depth = (enclosing == null) ? 0 : enclosing.depth + 1;
     }
 
-    public void define(Token var, String dataType, Object value){
-        isDeclaredInAnyEnv(var);
+    // assigns the declaration its depth and slot
+    public void define(Stmt.Var var){
+        isDeclaredInAnyEnv(var.name);
 
-        dataTypes.put(var.getLiteral().toString(), dataType);
-        values.put(var.getLiteral().toString(), value);
+        var.depth = depth;
+        var.slot = slots.size();
+        declarations.put(var.name.getLiteral().toString(), var);
+        slots.add(var);
     }
 
     public boolean isDeclaredInAnyEnv(Token var){
-        if (dataTypes.containsKey(var.getLiteral().toString())){
+        if (declarations.containsKey(var.getLiteral().toString())){
             throw new RuntimeError(var, "Redeclaration of " + var.getLiteral());
         }
 
@@ -46,48 +57,30 @@ public class SymbolTable {
         return false;
     }
 
-    public Object get(Token name){
-        if (values.containsKey(name.getLiteral())){
-            if (values.get(name.getLiteral()) == null){
-                throw new RuntimeError(name, "Variable " + name.getLiteral() + " might not have been initialized.");
-            }
-            return values.get(name.getLiteral());
-        };
-
-        if (enclosing != null) {
-            return enclosing.get(name);
+    // the declaration the name refers to, from the innermost scope outwards
+    public Stmt.Var lookup(Token name){
+        for (SymbolTable table = this; table != null; table = table.enclosing){
+            Stmt.Var declaration = table.declarations.get(name.getLiteral().toString());
+            if (declaration != null) return declaration;
         }
 
         throw new RuntimeError(name, "Undefined variable '" + name.getLiteral() + "'.");
     }
 
-    public String getType(Token name){
-        if (dataTypes.containsKey(name.getLiteral().toString())){
-            return dataTypes.get(name.getLiteral().toString());
-        };
-
-        if (enclosing != null) return enclosing.getType(name);
-
-        throw new RuntimeError(name, "Undefined variable '" + name.getLiteral() + "'.");
-    }
-
-    public void assign(Token name, Object value) {
-        if (values.containsKey(name.getLiteral().toString())){
-            values.put(name.getLiteral().toString(), value);
-            return;
+    // the layout of the frames for this scope
+    public Scope toScope(){
+        String[] names = new String[slots.size()];
+        DataType[] types = new DataType[slots.size()];
+        int[] uninitialized = new int[slots.size()];
+        int count = 0;
+
+        for (int i = 0; i < names.length; i++){
+            Stmt.Var var = slots.get(i);
+            names[i] = var.name.getLiteral().toString();
+            types[i] = DataType.of(var.dataType);
+            if (var.initializer == null) uninitialized[count++] = i;
         }
 
-        if (enclosing != null){
-            enclosing.assign(name, value);
-            return;
-        }
-
-        throw new RuntimeError(name, "Undefined variable '" + name.getLiteral().toString() + "'.");
-    }
-
-    public void print(){
-        for (String key: values.keySet()){
-            System.out.println(key + " = " + values.get(key));
-        }
+        return new Scope(depth, names, types, Arrays.copyOf(uninitialized, count));
     }
 }
@@ -0,0 +1,322 @@
+/* TYPE CHECKER
+ * This class computes the data type of every expression before the program
+ * runs, using the declarations the Resolver bound the variables to. Bisaya++
+ * is strongly typed, so every type rule can be checked here instead of on
+ * every assignment at run time.
+ *
+ * Implicit conversions become explicit Expr.Convert nodes in the tree:
+ *   - NUMERO -> TIPIK in mixed arithmetic, comparisons and assignments
+ *   - TIPIK -> NUMERO when a computed TIPIK is assigned to a NUMERO
+ *   - any value -> TINUOD where it is used as a condition or with UG/O/DILI
+ *   - any value -> text in IPAKITA and '&', where TINUOD becomes "OO"/"DILI"
+ * Since the nodes are immutable, the checked program is a rewritten copy of
+ * the tree, which has to be resolved again before it is run.
+ *
+ * Incompatible operands and assignments are reported as a TypeError before
+ * anything is executed.
+ */
+
+package com.example.bisayaplusplus.interpreter;
+
+import com.example.bisayaplusplus.exception.TypeError;
+import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.Conversion;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TypeChecker implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+
+    // returns the checked copy of the program. the statements must be resolved
+    public List<Stmt> check(List<Stmt> statements){
+        List<Stmt> checked = new ArrayList<>(statements.size());
+        for (Stmt stmt : statements){
+            checked.add(check(stmt));
+        }
+        return checked;
+    }
+
+    private Stmt check(Stmt stmt){
+        return stmt.accept(this);
+    }
+
+    private Expr check(Expr expr){
+        return expr.accept(this);
+    }
+
+    private static Expr typed(Expr expr, DataType type){
+        expr.type = type;
+        return expr;
+    }
+
+    private static Expr convert(Conversion conversion, Expr expr){
+        if (conversion.dataType == expr.type) return expr;
+        return typed(new Expr.Convert(conversion, expr), conversion.dataType);
+    }
+
+    private static boolean isNumber(Expr expr){
+        return expr.type.isNumber();
+    }
+
+    // type of mixed NUMERO/TIPIK arithmetic
+    private static DataType numberType(Expr left, Expr right){
+        return (left.type == DataType.TIPIK || right.type == DataType.TIPIK) ? DataType.TIPIK : DataType.NUMERO;
+    }
+
+    private static Expr promote(Expr expr, DataType type){
+        return type == DataType.TIPIK ? convert(Conversion.TO_DOUBLE, expr) : expr;
+    }
+
+    private static void checkNumberOperands(Token operator, Expr left, Expr right, String message){
+        if (isNumber(left) && isNumber(right)) return;
+        throw new TypeError(operator, message + ": Operands must be numbers.");
+    }
+
+    /*
+     * Returns the value to be assigned to a variable of the given data type,
+     * converted if needed. Throws a TypeError if the value's type is incompatible.
+     * A computed TIPIK is truncated when assigned to a NUMERO, a TIPIK literal is not allowed.
+     */
+    private Expr assignable(Expr value, Token variable, DataType varDataType){
+        DataType valueDataType = value.type;
+
+        if (varDataType == valueDataType){
+            return value;
+        } else if (varDataType == DataType.TIPIK && valueDataType == DataType.NUMERO){
+            return convert(Conversion.TO_DOUBLE, value);
+        } else if (varDataType == DataType.NUMERO && valueDataType == DataType.TIPIK && !(value instanceof Expr.Literal)){
+            return convert(Conversion.TO_INTEGER, value);
+        }
+
+        throw new TypeError(variable, valueDataType.bisayaName, variable.getLiteral().toString(), varDataType.bisayaName);
+    }
+
+    // CHECKING EXPRESSIONS
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        DataType dataType = DataType.of(expr.declaration.dataType);
+        Expr value = assignable(check(expr.value), expr.name, dataType);
+        return typed(new Expr.Assign(expr.name, value), dataType);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = check(expr.left);
+        Expr right = check(expr.right);
+        DataType type;
+
+        switch (expr.operator.getTokenType()){
+            case CONCAT:
+                return typed(new Expr.Binary(convert(Conversion.TO_STRING, left), expr.operator, convert(Conversion.TO_STRING, right)), DataType.PULONG);
+            case PLUS:
+                if (left.type == DataType.PULONG && right.type == DataType.PULONG){
+                    return typed(new Expr.Binary(left, expr.operator, right), DataType.PULONG);
+                }
+
+                if (!isNumber(left) || !isNumber(right)){
+                    throw new TypeError(expr.operator, "ADDITION: Operands must be of the same data type.");
+                }
+                break;
+            case MINUS:
+                checkNumberOperands(expr.operator, left, right, "SUBTRACTION");
+                break;
+            case DIVIDE:
+                checkNumberOperands(expr.operator, left, right, "DIVISION");
+                break;
+            case MODULO:
+                checkNumberOperands(expr.operator, left, right, "MODULO");
+                break;
+            case MULTIPLY:
+                checkNumberOperands(expr.operator, left, right, "MULTIPLICATION");
+                break;
+            default:
+                throw new TypeError(expr.operator, "Unknown operator " + expr.operator.getTokenType() + ".");
+        }
+
+        type = numberType(left, right);
+        return typed(new Expr.Binary(promote(left, type), expr.operator, promote(right, type)), type);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        Expr inner = check(expr.expression);
+        return typed(new Expr.Grouping(inner), inner.type);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        // TINUOD literals are scanned as "OO"/"DILI", at run time they are booleans
+        DataType type = DataType.of(expr.dataType);
+        if (type == DataType.TINUOD && expr.value instanceof String){
+            return typed(new Expr.Literal(expr.dataType, expr.value.equals("OO")), type);
+        }
+        return typed(expr, type);
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        TokenType opType = expr.operator.getTokenType();
+        Expr right = check(expr.right);
+
+        if (opType == TokenType.LOGIC_NOT){
+            return typed(new Expr.Logical(null, expr.operator, convert(Conversion.TO_BOOLEAN, right)), DataType.TINUOD);
+        }
+
+        Expr left = check(expr.left);
+        switch (opType){
+            case LOGIC_OR:
+            case LOGIC_AND:
+                left = convert(Conversion.TO_BOOLEAN, left);
+                right = convert(Conversion.TO_BOOLEAN, right);
+                break;
+            case GREATER_THAN:
+            case GREATER_OR_EQUAL:
+            case LESSER_THAN:
+            case LESSER_OR_EQUAL: {
+                checkNumberOperands(expr.operator, left, right, "COMPARISON (" + opType + ")");
+                DataType type = numberType(left, right);
+                left = promote(left, type);
+                right = promote(right, type);
+                break;
+            }
+            case NOT_EQUAL:
+            case DOUBLE_EQUAL:
+                if (isNumber(left) && isNumber(right)){
+                    DataType type = numberType(left, right);
+                    left = promote(left, type);
+                    right = promote(right, type);
+                } else if (left.type != right.type){
+                    throw new TypeError(expr.operator, "COMPARISON (" + opType + "): Operands must be of the same data type.");
+                }
+                break;
+            default:
+                throw new TypeError(expr.operator, "Unknown operator " + opType + ".");
+        }
+
+        return typed(new Expr.Logical(left, expr.operator, right), DataType.TINUOD);
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = check(expr.right);
+
+        if (!isNumber(right)){
+            throw new TypeError(expr.operator, "Operand must be a number.");
+        }
+
+        return typed(new Expr.Unary(expr.operator, right), right.type);
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return typed(expr, DataType.of(expr.declaration.dataType));
+    }
+
+    @Override
+    public Expr visitIncrementOrDecrementExpr(Expr.IncrementOrDecrement expr) {
+        DataType type = DataType.of(expr.var.declaration.dataType);
+
+        if (!type.isNumber() && type != DataType.LETRA){
+            throw new TypeError(expr.var.name, "Cannot " + expr.operator.getTokenType() + " this variable.");
+        }
+
+        typed(expr.var, type);
+        return typed(expr, type);
+    }
+
+    @Override
+    public Expr visitConvertExpr(Expr.Convert expr) {
+        return convert(expr.conversion, check(expr.expression));
+    }
+
+    // CHECKING STATEMENTS
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        return new Stmt.Block(check(stmt.statements));
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        return new Stmt.Expression(check(stmt.expression));
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        List<Stmt.ElseIf> elseIfBranch = null;
+
+        if (stmt.elseIfBranch != null){
+            elseIfBranch = new ArrayList<>(stmt.elseIfBranch.size());
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                elseIfBranch.add((Stmt.ElseIf) check(elif));
+            }
+        }
+
+        return new Stmt.If(condition(stmt.condition), check(stmt.thenBranch), elseIfBranch,
+                stmt.elseBranch == null ? null : check(stmt.elseBranch));
+    }
+
+    @Override
+    public Stmt visitElseIfStmt(Stmt.ElseIf stmt) {
+        return new Stmt.ElseIf(condition(stmt.condition), check(stmt.thenBranch));
+    }
+
+    // only made by the optimizer, after type checking
+    @Override
+    public Stmt visitSwitchStmt(Stmt.Switch stmt) {
+        return new Stmt.Switch(check(stmt.subject), stmt.table, check(stmt.branches),
+                stmt.defaultBranch == null ? null : check(stmt.defaultBranch));
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        return new Stmt.Print(convert(Conversion.TO_STRING, check(stmt.expression)));
+    }
+
+    @Override
+    public Stmt visitForLoopStmt(Stmt.ForLoop stmt) {
+        return new Stmt.ForLoop(check(stmt.initialization), condition(stmt.condition), check(stmt.update), check(stmt.body));
+    }
+
+    // only made by the optimizer, after type checking
+    @Override
+    public Stmt visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        return check(stmt.loop);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        return new Stmt.While(condition(stmt.condition), check(stmt.body));
+    }
+
+    @Override
+    public Stmt visitDoWhileStmt(Stmt.DoWhile stmt) {
+        return new Stmt.DoWhile(condition(stmt.condition), check(stmt.body));
+    }
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        Expr initializer = null;
+        if (stmt.initializer != null){
+            initializer = assignable(check(stmt.initializer), stmt.name, DataType.of(stmt.dataType));
+        }
+
+        return new Stmt.Var(stmt.dataType, stmt.name, initializer);
+    }
+
+    @Override
+    public Stmt visitInputStmt(Stmt.Input stmt) {
+        // the values are converted while reading, to the declared types
+        for (Expr.Variable var : stmt.variables){
+            check(var);
+        }
+        return stmt;
+    }
+
+    // conditions of KUNG and the loops can be of any type
+    private Expr condition(Expr condition){
+        return convert(Conversion.TO_BOOLEAN, check(condition));
+    }
+}
@@ -0,0 +1,84 @@
+/* FILE CHANNEL OUTPUT SINK
+ * Output sink that writes UTF-8 encoded output straight into a FileChannel.
+ *
+ * Characters are encoded into a reusable direct ByteBuffer, which is only
+ * written to the channel when it is full or flushed. This avoids the extra
+ * copies of the Writer/OutputStream stack for programs that print a lot.
+ */
+
+package com.example.bisayaplusplus.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class FileChannelOutputSink implements OutputSink {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public FileChannelOutputSink(FileChannel channel){
+        this.channel = channel;
+    }
+
+    // creates (or truncates) the file at the given path
+    public static FileChannelOutputSink open(Path path) throws IOException {
+        return new FileChannelOutputSink(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    @Override
+    public void write(String text) {
+        CharBuffer chars = CharBuffer.wrap(text);
+
+        while (true){
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isUnderflow()) break;
+            if (result.isOverflow()){
+                drainBuffer();
+            } else {
+                throw new UncheckedIOException(new IOException("Cannot encode output: " + result));
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        drainBuffer();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void drainBuffer(){
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/* INPUT SOURCE
+ * Where a Bisaya++ program reads its DAWAT input from.
+ *
+ * Each DAWAT statement reads exactly one line; the interpreter splits it
+ * into the comma-separated values itself. readLine() returns null when
+ * there is no more input.
+ */
+
+package com.example.bisayaplusplus.io;
+
+public interface InputSource {
+    String readLine();
+}
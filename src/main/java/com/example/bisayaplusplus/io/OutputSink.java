@@ -0,0 +1,21 @@
+/* OUTPUT SINK
+ * Destination for everything a Bisaya++ program prints with IPAKITA.
+ *
+ * The interpreter only talks to this interface, so the same program can
+ * print to the JavaFX output area, to stdout, to memory or to a file.
+ * Implementations may buffer; flush() makes everything written so far
+ * visible and is called before the program waits for input (DAWAT).
+ */
+
+package com.example.bisayaplusplus.io;
+
+public interface OutputSink {
+    void write(String text);
+
+    void flush();
+
+    // flushes and releases the underlying resource, if any
+    default void close(){
+        flush();
+    }
+}
@@ -0,0 +1,42 @@
+/* READER INPUT SOURCE
+ * Input source that reads DAWAT lines from a java.io.Reader, e.g. stdin
+ * for the command line or an input file for batch runs.
+ */
+
+package com.example.bisayaplusplus.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+public class ReaderInputSource implements InputSource {
+    private final BufferedReader reader;
+
+    public ReaderInputSource(Reader reader){
+        this.reader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    public static ReaderInputSource stdin(){
+        return new ReaderInputSource(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    }
+
+    // reads the input file through a FileChannel
+    public static ReaderInputSource open(Path path) throws IOException {
+        return new ReaderInputSource(Channels.newReader(FileChannel.open(path), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
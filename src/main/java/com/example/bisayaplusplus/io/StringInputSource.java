@@ -0,0 +1,27 @@
+/* STRING INPUT SOURCE
+ * Input source with canned input kept in memory. Every line of the given
+ * text answers one DAWAT statement.
+ */
+
+package com.example.bisayaplusplus.io;
+
+public class StringInputSource implements InputSource {
+    private final String text;
+    private int position = 0;
+
+    public StringInputSource(String text){
+        this.text = text;
+    }
+
+    @Override
+    public String readLine() {
+        if (position >= text.length()) return null;
+
+        int end = text.indexOf('\n', position);
+        if (end < 0) end = text.length();
+
+        String line = text.substring(position, (end > position && text.charAt(end - 1) == '\r') ? end - 1 : end);
+        position = end + 1;
+        return line;
+    }
+}
@@ -0,0 +1,37 @@
+/* STRING OUTPUT SINK
+ * Output sink that keeps everything in memory. Used for tests, batch runs
+ * and benchmarks where the output is compared or thrown away afterwards.
+ */
+
+package com.example.bisayaplusplus.io;
+
+public class StringOutputSink implements OutputSink {
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public void write(String text) {
+        this.text.append(text);
+    }
+
+    @Override
+    public void flush() {
+        // nothing to flush, the text is always up to date
+    }
+
+    public String getText(){
+        return text.toString();
+    }
+
+    public int length(){
+        return text.length();
+    }
+
+    public void clear(){
+        text.setLength(0);
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,63 @@
+/* WRITER OUTPUT SINK
+ * Output sink backed by a java.io.Writer, e.g. stdout for the command line.
+ *
+ * The writer is wrapped in a large BufferedWriter so printing inside loops
+ * does not turn into one system call per IPAKITA. Output only reaches the
+ * underlying stream on flush(), on close() or when the buffer is full.
+ */
+
+package com.example.bisayaplusplus.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public class WriterOutputSink implements OutputSink {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+
+    public WriterOutputSink(Writer writer){
+        this.writer = (writer instanceof BufferedWriter) ? writer : new BufferedWriter(writer, BUFFER_SIZE);
+    }
+
+    // sink for the process' standard output. closing it does not close System.out
+    public static WriterOutputSink stdout(){
+        return new WriterOutputSink(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)){
+            @Override
+            public void close() {
+                flush();
+            }
+        };
+    }
+
+    @Override
+    public void write(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
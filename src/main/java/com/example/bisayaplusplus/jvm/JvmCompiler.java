@@ -0,0 +1,701 @@
+/* JVM COMPILER
+ * This class translates an analyzed Program into JVM bytecode with ASM: one
+ * class with a single static method, run(JvmRuntime), that does what the
+ * statements do. The JvmEngine loads it as a hidden class, after which the
+ * HotSpot JIT compiles Bisaya++ loops the same way it compiles Java loops.
+ *
+ * Every variable becomes a JVM local of its own type (int for NUMERO, LETRA
+ * and TINUOD, double for TIPIK). A variable that can be read before it is
+ * assigned (declared without an initializer, or a LETRA, which DAWAT can
+ * leave unassigned) gets a second int local as its "assigned" flag, which
+ * every read checks.
+ *
+ * IPAKITA, DAWAT, the stop flag and the NUMERO operations that can fail go
+ * through the JvmRuntime. Those operations are passed the Bisaya++ line, so
+ * runtime errors read the same as the Interpreter's; the line is also put in
+ * the class's line number table. The order of evaluation is the Interpreter's:
+ * left to right, with UG and O skipping their right operand once the left one
+ * decides. Conditions are compiled into the JVM's compare-and-branch
+ * instructions (see jumpIf), without computing a TINUOD first.
+ */
+
+package com.example.bisayaplusplus.jvm;
+
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import com.example.bisayaplusplus.parser.SwitchTable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import static org.objectweb.asm.Opcodes.*;
+
+public class JvmCompiler {
+    // the hidden class has to be in the package of the lookup that defines it
+    static final String CLASS_NAME = "com/example/bisayaplusplus/jvm/CompiledProgram";
+    static final String RUN_DESCRIPTOR = "(L" + Type.getInternalName(JvmRuntime.class) + ";)V";
+
+    private static final String RUNTIME = Type.getInternalName(JvmRuntime.class);
+    private static final int RUNTIME_LOCAL = 0;
+
+    // the JVM local of a variable, and of its assigned flag (-1 if it has none)
+    private static class Local {
+        final int index;
+        final int flag;
+        final DataType type;
+
+        Local(int index, int flag, DataType type){
+            this.index = index;
+            this.flag = flag;
+            this.type = type;
+        }
+    }
+
+    private MethodVisitor mv;
+    private final Map<Stmt.Var, Local> locals = new IdentityHashMap<>();
+    private final Map<Character, Deque<Integer>> temps = new HashMap<>();
+    private int nextLocal = RUNTIME_LOCAL + 1;
+    private int line = -1;
+
+    private final List<List<Expr.Variable>> inputs = new ArrayList<>();
+
+    // the class file for the program
+    public byte[] compile(Program program){
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES){
+            // the only reference types are String and String[], never merged with each other
+            @Override
+            protected String getCommonSuperClass(String type1, String type2){
+                return "java/lang/Object";
+            }
+        };
+
+        cw.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, CLASS_NAME, null, "java/lang/Object", null);
+        cw.visitSource("program.bpp", null);
+
+        mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "run", RUN_DESCRIPTOR, null, null);
+        mv.visitCode();
+
+        for (Stmt stmt : program.statements){
+            statement(stmt);
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    // the variables of every DAWAT, in the order JvmRuntime.read numbers them
+    public List<List<Expr.Variable>> inputs(){
+        return inputs;
+    }
+
+    // EMITTING CODE
+    private void at(Token token){
+        if (token.getLine() == line) return;
+
+        line = token.getLine();
+        Label label = new Label();
+        mv.visitLabel(label);
+        mv.visitLineNumber(line, label);
+    }
+
+    private void push(int value){
+        if (value >= -1 && value <= 5){
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE){
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE){
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private void runtime(String name, String descriptor){
+        mv.visitMethodInsn(INVOKESTATIC, RUNTIME, name, descriptor, false);
+    }
+
+    // turns the int on the stack into a TINUOD with the given jump, e.g. IFNE for != 0
+    private void toBoolean(int jumpIfTrue){
+        Label isTrue = new Label();
+        Label end = new Label();
+        mv.visitJumpInsn(jumpIfTrue, isTrue);
+        mv.visitInsn(ICONST_0);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(isTrue);
+        mv.visitInsn(ICONST_1);
+        mv.visitLabel(end);
+    }
+
+    private void stopCheck(Label exit){
+        mv.visitVarInsn(ALOAD, RUNTIME_LOCAL);
+        mv.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, "stopped", "()Z", false);
+        mv.visitJumpInsn(IFNE, exit);
+    }
+
+    // LOCALS
+    private static char kind(DataType type){
+        switch (type){
+            case TIPIK: return 'D';
+            case PULONG:
+            case NULL: return 'A';
+            default: return 'I';
+        }
+    }
+
+    private static int size(char kind){
+        return (kind == 'D' || kind == 'J') ? 2 : 1;
+    }
+
+    private int newLocal(char kind){
+        int index = nextLocal;
+        nextLocal += size(kind);
+        return index;
+    }
+
+    // temporaries are only ever reused for values of the same kind
+    private int temp(char kind){
+        Deque<Integer> free = temps.get(kind);
+        return (free == null || free.isEmpty()) ? newLocal(kind) : free.pop();
+    }
+
+    private void release(char kind, int index){
+        temps.computeIfAbsent(kind, k -> new ArrayDeque<>()).push(index);
+    }
+
+    private void load(char kind, int index){
+        switch (kind){
+            case 'D': mv.visitVarInsn(DLOAD, index); break;
+            case 'J': mv.visitVarInsn(LLOAD, index); break;
+            case 'A': mv.visitVarInsn(ALOAD, index); break;
+            default: mv.visitVarInsn(ILOAD, index);
+        }
+    }
+
+    private void store(char kind, int index){
+        switch (kind){
+            case 'D': mv.visitVarInsn(DSTORE, index); break;
+            case 'J': mv.visitVarInsn(LSTORE, index); break;
+            case 'A': mv.visitVarInsn(ASTORE, index); break;
+            default: mv.visitVarInsn(ISTORE, index);
+        }
+    }
+
+    private void pop(DataType type){
+        mv.visitInsn(kind(type) == 'D' ? POP2 : POP);
+    }
+
+    private void dup(DataType type){
+        mv.visitInsn(kind(type) == 'D' ? DUP2 : DUP);
+    }
+
+    // stores the value on the stack into the variable and marks it assigned
+    private void assign(Local local){
+        store(kind(local.type), local.index);
+        setFlag(local, true);
+    }
+
+    private void setFlag(Local local, boolean assigned){
+        if (local.flag < 0) return;
+        mv.visitInsn(assigned ? ICONST_1 : ICONST_0);
+        mv.visitVarInsn(ISTORE, local.flag);
+    }
+
+    // a LETRA is left unassigned by DAWAT input that isn't a single character
+    private static boolean mightBeUnset(Stmt.Var declaration){
+        return declaration.initializer == null || DataType.of(declaration.dataType) == DataType.LETRA;
+    }
+
+    // COMPILING STATEMENTS
+    private void statement(Stmt stmt){
+        if (stmt instanceof Stmt.Expression){
+            Expr expression = ((Stmt.Expression) stmt).expression;
+            expression(expression);
+            pop(expression.type);
+        } else if (stmt instanceof Stmt.Print){
+            mv.visitVarInsn(ALOAD, RUNTIME_LOCAL);
+            expression(((Stmt.Print) stmt).expression);
+            mv.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, "print", "(Ljava/lang/String;)V", false);
+        } else if (stmt instanceof Stmt.Var){
+            varStatement((Stmt.Var) stmt);
+        } else if (stmt instanceof Stmt.Block){
+            for (Stmt statement : ((Stmt.Block) stmt).statements){
+                statement(statement);
+            }
+        } else if (stmt instanceof Stmt.If){
+            ifStatement((Stmt.If) stmt);
+        } else if (stmt instanceof Stmt.Switch){
+            switchStatement((Stmt.Switch) stmt);
+        } else if (stmt instanceof Stmt.CountedLoop){
+            // the counter already is an int local, the JIT counts the loop itself
+            statement(((Stmt.CountedLoop) stmt).loop);
+        } else if (stmt instanceof Stmt.ForLoop){
+            Stmt.ForLoop loop = (Stmt.ForLoop) stmt;
+            Label start = new Label();
+            Label exit = new Label();
+
+            statement(loop.initialization);
+            mv.visitLabel(start);
+            jumpIf(loop.condition, false, exit);
+            stopCheck(exit);
+            statement(loop.body);
+            statement(loop.update);
+            mv.visitJumpInsn(GOTO, start);
+            mv.visitLabel(exit);
+        } else if (stmt instanceof Stmt.While){
+            Stmt.While loop = (Stmt.While) stmt;
+            Label start = new Label();
+            Label exit = new Label();
+
+            mv.visitLabel(start);
+            jumpIf(loop.condition, false, exit);
+            stopCheck(exit);
+            statement(loop.body);
+            mv.visitJumpInsn(GOTO, start);
+            mv.visitLabel(exit);
+        } else if (stmt instanceof Stmt.DoWhile){
+            Stmt.DoWhile loop = (Stmt.DoWhile) stmt;
+            Label start = new Label();
+            Label exit = new Label();
+
+            mv.visitLabel(start);
+            stopCheck(exit);
+            statement(loop.body);
+            jumpIf(loop.condition, true, start);
+            mv.visitLabel(exit);
+        } else if (stmt instanceof Stmt.Input){
+            inputStatement(((Stmt.Input) stmt).variables);
+        } else {
+            throw new IllegalStateException("Unexpected statement " + stmt.getClass().getSimpleName());
+        }
+    }
+
+    private void varStatement(Stmt.Var stmt){
+        at(stmt.name);
+
+        // the initializer can't see the variable, so it is compiled first
+        if (stmt.initializer != null) expression(stmt.initializer);
+
+        DataType type = DataType.of(stmt.dataType);
+        int index = newLocal(kind(type));
+        int flag = mightBeUnset(stmt) ? newLocal('I') : -1;
+        Local local = new Local(index, flag, type);
+        locals.put(stmt, local);
+
+        if (stmt.initializer != null){
+            assign(local);
+        } else {
+            // the value is never read while the flag is unset, but the verifier wants one
+            mv.visitInsn(kind(type) == 'D' ? DCONST_0 : ICONST_0);
+            store(kind(type), index);
+            setFlag(local, false);
+        }
+    }
+
+    private void ifStatement(Stmt.If stmt){
+        Label end = new Label();
+        Label next = new Label();
+
+        jumpIf(stmt.condition, false, next);
+        statement(stmt.thenBranch);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(next);
+
+        if (stmt.elseIfBranch != null){
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                next = new Label();
+                jumpIf(elif.condition, false, next);
+                statement(elif.thenBranch);
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(next);
+            }
+        }
+
+        if (stmt.elseBranch != null) statement(stmt.elseBranch);
+        mv.visitLabel(end);
+    }
+
+    // a LETRA subject is a char on the stack, so its keys are compared like NUMERO keys
+    private void switchStatement(Stmt.Switch stmt){
+        SwitchTable table = stmt.table;
+        Label end = new Label();
+        Label otherwise = new Label();
+        Label[] branches = new Label[stmt.branches.size()];
+        for (int i = 0; i < branches.length; i++){
+            branches[i] = new Label();
+        }
+
+        expression(stmt.subject);
+        if (table.isDense()){
+            Label[] cases = new Label[table.max() - table.min() + 1];
+            for (int key = table.min(); key <= table.max(); key++){
+                int branch = table.indexOf(key);
+                cases[key - table.min()] = (branch >= 0) ? branches[branch] : otherwise;
+            }
+            mv.visitTableSwitchInsn(table.min(), table.max(), otherwise, cases);
+        } else {
+            int[] keys = table.keys.clone();
+            Arrays.sort(keys);
+            Label[] cases = new Label[keys.length];
+            for (int i = 0; i < keys.length; i++){
+                cases[i] = branches[table.indexOf(keys[i])];
+            }
+            mv.visitLookupSwitchInsn(otherwise, keys, cases);
+        }
+
+        for (int i = 0; i < branches.length; i++){
+            mv.visitLabel(branches[i]);
+            statement(stmt.branches.get(i));
+            mv.visitJumpInsn(GOTO, end);
+        }
+
+        mv.visitLabel(otherwise);
+        if (stmt.defaultBranch != null) statement(stmt.defaultBranch);
+        mv.visitLabel(end);
+    }
+
+    private void inputStatement(List<Expr.Variable> variables){
+        int n = inputs.size();
+        inputs.add(variables);
+        at(variables.get(0).name);
+
+        int values = temp('A');
+        mv.visitVarInsn(ALOAD, RUNTIME_LOCAL);
+        push(n);
+        mv.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, "read", "(I)[Ljava/lang/String;", false);
+        mv.visitVarInsn(ASTORE, values);
+
+        int bits = temp('J');
+        for (int i = 0; i < variables.size(); i++){
+            Local local = locals.get(variables.get(i).declaration);
+
+            mv.visitVarInsn(ALOAD, RUNTIME_LOCAL);
+            push(n);
+            push(i);
+            mv.visitVarInsn(ALOAD, values);
+            push(i);
+            mv.visitInsn(AALOAD);
+            mv.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, "parse", "(IILjava/lang/String;)J", false);
+
+            switch (local.type){
+                case TIPIK:
+                    mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false);
+                    assign(local);
+                    break;
+                case LETRA: {
+                    Label unset = new Label();
+                    Label done = new Label();
+                    mv.visitVarInsn(LSTORE, bits);
+                    mv.visitVarInsn(LLOAD, bits);
+                    mv.visitLdcInsn(JvmRuntime.UNSET);
+                    mv.visitInsn(LCMP);
+                    mv.visitJumpInsn(IFEQ, unset);
+                    mv.visitVarInsn(LLOAD, bits);
+                    mv.visitInsn(L2I);
+                    assign(local);
+                    mv.visitJumpInsn(GOTO, done);
+                    mv.visitLabel(unset);
+                    setFlag(local, false);
+                    mv.visitLabel(done);
+                    break;
+                }
+                default:
+                    mv.visitInsn(L2I);
+                    assign(local);
+            }
+        }
+
+        release('J', bits);
+        release('A', values);
+    }
+
+    // COMPILING EXPRESSIONS
+    // leaves the value on the stack: an int, a double or a String
+    private void expression(Expr expr){
+        if (expr instanceof Expr.Literal){
+            literal((Expr.Literal) expr);
+        } else if (expr instanceof Expr.Variable){
+            variable((Expr.Variable) expr);
+        } else if (expr instanceof Expr.Grouping){
+            expression(((Expr.Grouping) expr).expression);
+        } else if (expr instanceof Expr.Binary){
+            binary((Expr.Binary) expr);
+        } else if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            expression(unary.right);
+
+            if (unary.operator.getTokenType() == TokenType.NEGATIVE){
+                if (expr.type == DataType.TIPIK){
+                    mv.visitInsn(DNEG);
+                } else {
+                    at(unary.operator);
+                    push(line);
+                    runtime("negate", "(II)I");
+                }
+            }
+        } else if (expr instanceof Expr.Convert){
+            convert((Expr.Convert) expr);
+        } else if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            expression(assign.value);
+            dup(expr.type);
+            assign(locals.get(assign.declaration));
+        } else if (expr instanceof Expr.IncrementOrDecrement){
+            increment((Expr.IncrementOrDecrement) expr);
+        } else if (expr instanceof Expr.Logical){
+            logical((Expr.Logical) expr);
+        } else {
+            throw new IllegalStateException("Unexpected " + expr.type + " expression " + expr.getClass().getSimpleName());
+        }
+    }
+
+    private void literal(Expr.Literal expr){
+        Object value = expr.value;
+
+        switch (expr.type){
+            case NUMERO: push((Integer) value); break;
+            case LETRA: push((Character) value); break;
+            case TINUOD: push((Boolean) value ? 1 : 0); break;
+            case TIPIK: mv.visitLdcInsn(value); break;
+            default:
+                if (value == null){
+                    mv.visitInsn(ACONST_NULL);
+                } else {
+                    mv.visitLdcInsn(value);
+                }
+        }
+    }
+
+    private void variable(Expr.Variable var){
+        Local local = locals.get(var.declaration);
+
+        if (local.flag >= 0){
+            Label assigned = new Label();
+            mv.visitVarInsn(ILOAD, local.flag);
+            mv.visitJumpInsn(IFNE, assigned);
+            at(var.name);
+            mv.visitLdcInsn(var.name.getLiteral().toString());
+            push(line);
+            runtime("unset", "(Ljava/lang/String;I)Lcom/example/bisayaplusplus/exception/RuntimeError;");
+            mv.visitInsn(ATHROW);
+            mv.visitLabel(assigned);
+        }
+
+        load(kind(local.type), local.index);
+    }
+
+    private void binary(Expr.Binary expr){
+        expression(expr.left);
+        expression(expr.right);
+
+        if (expr.type == DataType.PULONG){
+            runtime("concat", "(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;");
+            return;
+        }
+
+        TokenType opType = expr.operator.getTokenType();
+
+        if (expr.type == DataType.TIPIK){
+            switch (opType){
+                case PLUS: mv.visitInsn(DADD); break;
+                case MINUS: mv.visitInsn(DSUB); break;
+                case MULTIPLY: mv.visitInsn(DMUL); break;
+                case DIVIDE: mv.visitInsn(DDIV); break;
+                default: mv.visitInsn(DREM);
+            }
+            return;
+        }
+
+        at(expr.operator);
+        push(line);
+        switch (opType){
+            case PLUS: runtime("add", "(III)I"); break;
+            case MINUS: runtime("subtract", "(III)I"); break;
+            case MULTIPLY: runtime("multiply", "(III)I"); break;
+            case DIVIDE: runtime("divide", "(III)I"); break;
+            default: runtime("modulo", "(III)I");
+        }
+    }
+
+    private void convert(Expr.Convert expr){
+        DataType from = expr.expression.type;
+        expression(expr.expression);
+        if (from == expr.conversion.dataType) return;
+
+        switch (expr.conversion){
+            case TO_DOUBLE:
+                mv.visitInsn(I2D);
+                break;
+            case TO_INTEGER:
+                mv.visitInsn(D2I);
+                break;
+            case TO_BOOLEAN:
+                switch (from){
+                    case NUMERO:
+                        toBoolean(IFNE);
+                        break;
+                    case TIPIK:
+                        // NaN is not 0, so it is true
+                        mv.visitInsn(DCONST_0);
+                        mv.visitInsn(DCMPL);
+                        toBoolean(IFNE);
+                        break;
+                    case LETRA:
+                        // any LETRA is true, it was only evaluated for its effects
+                        mv.visitInsn(POP);
+                        mv.visitInsn(ICONST_1);
+                        break;
+                    default:
+                        runtime("isTruthy", "(Ljava/lang/String;)Z");
+                }
+                break;
+            default:
+                switch (from){
+                    case NUMERO: mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "toString", "(I)Ljava/lang/String;", false); break;
+                    case TIPIK: mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "toString", "(D)Ljava/lang/String;", false); break;
+                    case LETRA: mv.visitMethodInsn(INVOKESTATIC, "java/lang/String", "valueOf", "(C)Ljava/lang/String;", false); break;
+                    case TINUOD: runtime("stringify", "(Z)Ljava/lang/String;"); break;
+                }
+        }
+    }
+
+    // the prefix form leaves the value from before on the stack, the postfix form the new one
+    private void increment(Expr.IncrementOrDecrement expr){
+        Local local = locals.get(expr.var.declaration);
+        int delta = (expr.operator.getTokenType() == TokenType.INCREMENT) ? +1 : -1;
+
+        variable(expr.var);
+        if (expr.isPrefix) dup(local.type);
+
+        switch (local.type){
+            case NUMERO:
+                at(expr.operator);
+                push(delta);
+                push(line);
+                runtime("increment", "(III)I");
+                break;
+            case TIPIK:
+                mv.visitInsn(DCONST_1);
+                mv.visitInsn(delta > 0 ? DADD : DSUB);
+                break;
+            default:
+                push(delta);
+                mv.visitInsn(IADD);
+                mv.visitInsn(I2C);
+        }
+
+        if (!expr.isPrefix) dup(local.type);
+        store(kind(local.type), local.index);
+    }
+
+    private void logical(Expr.Logical expr){
+        if (expr.operator.getTokenType() == TokenType.LOGIC_NOT){
+            expression(expr.right);
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(IXOR);
+            return;
+        }
+
+        // the same jumps as in a condition, ending in a 1 or a 0
+        Label isFalse = new Label();
+        Label end = new Label();
+        jumpIf(expr, false, isFalse);
+        mv.visitInsn(ICONST_1);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(isFalse);
+        mv.visitInsn(ICONST_0);
+        mv.visitLabel(end);
+    }
+
+    /*
+     * Compiles a TINUOD condition into jumps to the target, taken if its
+     * value is the given one; otherwise the code falls through. DILI only
+     * swaps the value jumped on, UG and O jump past their right operand once
+     * the left one decides, and a comparison ends in the JVM's own compare
+     * and branch. Only what is left is computed into an int and tested.
+     */
+    private void jumpIf(Expr condition, boolean value, Label target){
+        while (condition instanceof Expr.Grouping){
+            condition = ((Expr.Grouping) condition).expression;
+        }
+
+        if (!(condition instanceof Expr.Logical)){
+            expression(condition);
+            mv.visitJumpInsn(value ? IFNE : IFEQ, target);
+            return;
+        }
+
+        Expr.Logical logical = (Expr.Logical) condition;
+        TokenType opType = logical.operator.getTokenType();
+
+        if (opType == TokenType.LOGIC_NOT){
+            jumpIf(logical.right, !value, target);
+        } else if (opType == TokenType.LOGIC_AND || opType == TokenType.LOGIC_OR){
+            // the value of the left operand that decides: DILI for UG, OO for O
+            boolean decides = opType == TokenType.LOGIC_OR;
+            if (value == decides){
+                jumpIf(logical.left, value, target);
+                jumpIf(logical.right, value, target);
+            } else {
+                Label decided = new Label();
+                jumpIf(logical.left, decides, decided);
+                jumpIf(logical.right, value, target);
+                mv.visitLabel(decided);
+            }
+        } else {
+            expression(logical.left);
+            expression(logical.right);
+            compareAndJump(logical.left.type, opType, value, target);
+        }
+    }
+
+    // jumps if comparing the two operands on the stack gives the value
+    private void compareAndJump(DataType type, TokenType opType, boolean value, Label target){
+        switch (type){
+            case TIPIK:
+                // with NaN every comparison but <> is false, DCMPG and DCMPL give the answer that makes it so
+                switch (opType){
+                    case LESSER_THAN: mv.visitInsn(DCMPG); mv.visitJumpInsn(value ? IFLT : IFGE, target); break;
+                    case LESSER_OR_EQUAL: mv.visitInsn(DCMPG); mv.visitJumpInsn(value ? IFLE : IFGT, target); break;
+                    case GREATER_THAN: mv.visitInsn(DCMPL); mv.visitJumpInsn(value ? IFGT : IFLE, target); break;
+                    case GREATER_OR_EQUAL: mv.visitInsn(DCMPL); mv.visitJumpInsn(value ? IFGE : IFLT, target); break;
+                    case NOT_EQUAL: mv.visitInsn(DCMPL); mv.visitJumpInsn(value ? IFNE : IFEQ, target); break;
+                    default: mv.visitInsn(DCMPL); mv.visitJumpInsn(value ? IFEQ : IFNE, target);
+                }
+                break;
+            case PULONG:
+            case NULL: {
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+                boolean equal = opType != TokenType.NOT_EQUAL;
+                mv.visitJumpInsn((value == equal) ? IFNE : IFEQ, target);
+                break;
+            }
+            default:
+                // for ints, a comparison that doesn't hold is the opposite one that does
+                switch (opType){
+                    case LESSER_THAN: mv.visitJumpInsn(value ? IF_ICMPLT : IF_ICMPGE, target); break;
+                    case LESSER_OR_EQUAL: mv.visitJumpInsn(value ? IF_ICMPLE : IF_ICMPGT, target); break;
+                    case GREATER_THAN: mv.visitJumpInsn(value ? IF_ICMPGT : IF_ICMPLE, target); break;
+                    case GREATER_OR_EQUAL: mv.visitJumpInsn(value ? IF_ICMPGE : IF_ICMPLT, target); break;
+                    case NOT_EQUAL: mv.visitJumpInsn(value ? IF_ICMPNE : IF_ICMPEQ, target); break;
+                    default: mv.visitJumpInsn(value ? IF_ICMPEQ : IF_ICMPNE, target);
+                }
+        }
+    }
+}
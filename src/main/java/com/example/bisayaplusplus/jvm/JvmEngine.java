@@ -0,0 +1,66 @@
+/* JVM ENGINE
+ * This engine compiles the program to a JVM class with the JvmCompiler and
+ * runs it. The class is defined as a hidden class of this package, so it can
+ * be unloaded together with the engine and nothing else can link against it.
+ *
+ * A program too large for a single JVM method (64 KB of bytecode) runs on
+ * the ClosureEngine instead.
+ */
+
+package com.example.bisayaplusplus.jvm;
+
+import com.example.bisayaplusplus.interpreter.ClosureEngine;
+import com.example.bisayaplusplus.interpreter.Engine;
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import org.objectweb.asm.MethodTooLargeException;
+
+public class JvmEngine implements Engine {
+    private final JvmRuntime runtime;
+    private final MethodHandle run;
+
+    private JvmEngine(byte[] classFile, JvmRuntime runtime){
+        this.runtime = runtime;
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            this.run = lookup.findStatic(lookup.lookupClass(), "run", MethodType.methodType(void.class, JvmRuntime.class));
+        } catch (IllegalAccessException | NoSuchMethodException e){
+            throw new IllegalStateException("Could not load the compiled program", e);
+        }
+    }
+
+    public static Engine create(Program program, OutputSink output, InputSource input){
+        JvmCompiler compiler = new JvmCompiler();
+
+        byte[] classFile;
+        try {
+            classFile = compiler.compile(program);
+        } catch (MethodTooLargeException e){
+            return new ClosureEngine(program, output, input);
+        }
+
+        return new JvmEngine(classFile, new JvmRuntime(output, input, compiler.inputs()));
+    }
+
+    @Override
+    public void stopInterpreting(){
+        runtime.stop();
+    }
+
+    @Override
+    public void interpret(){
+        try {
+            run.invokeExact(runtime);
+        } catch (RuntimeException | Error e){
+            throw e;
+        } catch (Throwable t){
+            // run declares no checked exceptions
+            throw new IllegalStateException(t);
+        }
+    }
+}
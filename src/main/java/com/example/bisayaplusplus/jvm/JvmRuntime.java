@@ -0,0 +1,120 @@
+/* JVM RUNTIME
+ * What the classes generated by the JvmCompiler call into: IPAKITA and DAWAT,
+ * which go through the same OutputSink and InputSource as the Interpreter,
+ * the stop flag, and the NUMERO operations that can fail.
+ *
+ * The generated code passes the Bisaya++ line of every operation that can
+ * fail, so the errors read the same as the Interpreter's. The helpers are
+ * small static methods that the JIT inlines into the compiled loops.
+ */
+
+package com.example.bisayaplusplus.jvm;
+
+import com.example.bisayaplusplus.exception.RuntimeError;
+import com.example.bisayaplusplus.interpreter.Environment;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import com.example.bisayaplusplus.parser.Expr;
+import java.util.List;
+
+public class JvmRuntime {
+    public static final long UNSET = Environment.UNSET;
+
+    private final OutputSink output;
+    private final InputSource input;
+    private final List<List<Expr.Variable>> inputs;
+    private volatile boolean stopped;
+
+    public JvmRuntime(OutputSink output, InputSource input, List<List<Expr.Variable>> inputs){
+        this.output = output;
+        this.input = input;
+        this.inputs = inputs;
+    }
+
+    public void stop(){
+        stopped = true;
+    }
+
+    public boolean stopped(){
+        return stopped;
+    }
+
+    // IPAKITA
+    public void print(String text){
+        output.write(text);
+    }
+
+    // DAWAT number n of the program: the values of the next line of input
+    public String[] read(int n){
+        // prompts printed before DAWAT must be visible before waiting for input
+        output.flush();
+        return Environment.splitInput(inputs.get(n), input.readLine());
+    }
+
+    // the bits of the i-th value of DAWAT number n, UNSET for a LETRA that isn't one character
+    public long parse(int n, int i, String value){
+        return Environment.parseInput(inputs.get(n).get(i), value);
+    }
+
+    // NUMERO ARITHMETIC
+    public static int add(int left, int right, int line){
+        int sum = left + right;
+        if (((left ^ sum) & (right ^ sum)) < 0) throw overflow(line);
+        return sum;
+    }
+
+    public static int subtract(int left, int right, int line){
+        int difference = left - right;
+        if (((left ^ right) & (left ^ difference)) < 0) throw overflow(line);
+        return difference;
+    }
+
+    public static int multiply(int left, int right, int line){
+        long product = (long) left * right;
+        if ((int) product != product) throw overflow(line);
+        return (int) product;
+    }
+
+    public static int divide(int left, int right, int line){
+        if (right == 0) throw new RuntimeError(line, "Division by zero.");
+        if (left == Integer.MIN_VALUE && right == -1) throw overflow(line);
+        return left / right;
+    }
+
+    public static int modulo(int left, int right, int line){
+        if (right == 0) throw new RuntimeError(line, "Modulo by zero.");
+        return left % right;
+    }
+
+    public static int negate(int value, int line){
+        if (value == Integer.MIN_VALUE) throw overflow(line);
+        return -value;
+    }
+
+    public static int increment(int value, int delta, int line){
+        if (value == (delta > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) throw overflow(line);
+        return value + delta;
+    }
+
+    // TEXT
+    public static String concat(String left, String right){
+        return left + right;
+    }
+
+    public static String stringify(boolean value){
+        return value ? "OO" : "DILI";
+    }
+
+    public static boolean isTruthy(String value){
+        return !value.equals("DILI");
+    }
+
+    // ERRORS
+    public static RuntimeError unset(String name, int line){
+        return new RuntimeError(line, "Variable " + name + " might not have been initialized.");
+    }
+
+    private static RuntimeError overflow(int line){
+        return new RuntimeError(line, "Integer overflow. The result does not fit in a NUMERO.");
+    }
+}
@@ -341,7 +341,6 @@ public class Lexer {
     // function to check if the previous token is a number
     // if number -> return false ; if not -> return true
     private boolean isUnaryToken(){
-        System.out.println("checkUnary: " + checkPrevToken());
         return !(checkPrevToken() == TokenType.INTEGER || checkPrevToken() == TokenType.DOUBLE || checkPrevToken() == TokenType.IDENTIFIER);
     }
     // function to check the recently added token type
@@ -0,0 +1,212 @@
+/* AST REWRITER
+ * The base of the optimization passes. Like the TypeChecker, a pass rewrites
+ * the checked tree into a copy, since the nodes are immutable: by default
+ * every node is copied with its rewritten children and its data type, and a
+ * pass overrides the visit methods of the nodes it changes.
+ *
+ * The copy has to be resolved again before it is run. Leaves (literals,
+ * variables, increments and DAWAT) are shared with the original tree, which
+ * is fine because resolving binds them again.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class AstRewriter implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+
+    // returns the rewritten copy of the program. the statements must be checked and resolved
+    public List<Stmt> rewrite(List<Stmt> program){
+        return rewriteAll(program);
+    }
+
+    protected List<Stmt> rewriteAll(List<Stmt> statements){
+        List<Stmt> rewritten = new ArrayList<>(statements.size());
+        for (Stmt stmt : statements){
+            rewritten.add(rewrite(stmt));
+        }
+        return rewritten;
+    }
+
+    protected Stmt rewrite(Stmt stmt){
+        return stmt.accept(this);
+    }
+
+    protected Expr rewrite(Expr expr){
+        return expr.accept(this);
+    }
+
+    protected static Expr typed(Expr expr, DataType type){
+        expr.type = type;
+        return expr;
+    }
+
+    protected static Expr.Literal literal(DataType type, Object value){
+        Expr.Literal literal = new Expr.Literal(type.className, value);
+        literal.type = type;
+        return literal;
+    }
+
+    // a new variable set to the value, for a pass that computes the value once. no program can use the name
+    protected static Stmt.Var temporary(String name, Expr value){
+        Token token = new Token(TokenType.IDENTIFIER, name, line(value));
+        return new Stmt.Var(value.type.className, token, value);
+    }
+
+    protected static Expr read(Stmt.Var temporary){
+        return typed(new Expr.Variable(temporary.name), DataType.of(temporary.dataType));
+    }
+
+    // the line of a token in the expression, so an error in it is reported there
+    protected static int line(Expr expr){
+        if (expr instanceof Expr.Binary) return ((Expr.Binary) expr).operator.getLine();
+        if (expr instanceof Expr.Logical) return ((Expr.Logical) expr).operator.getLine();
+        if (expr instanceof Expr.Unary) return ((Expr.Unary) expr).operator.getLine();
+        if (expr instanceof Expr.Variable) return ((Expr.Variable) expr).name.getLine();
+        if (expr instanceof Expr.Grouping) return line(((Expr.Grouping) expr).expression);
+        if (expr instanceof Expr.Convert) return line(((Expr.Convert) expr).expression);
+        return 0;
+    }
+
+    // UG and O, which only evaluate their right operand if the left one doesn't decide
+    protected static boolean isShortCircuit(Expr.Logical logical){
+        TokenType opType = logical.operator.getTokenType();
+        return opType == TokenType.LOGIC_AND || opType == TokenType.LOGIC_OR;
+    }
+
+    // a literal with a value, not the 'null' literal
+    protected static boolean isConstant(Expr expr){
+        return expr instanceof Expr.Literal && expr.type != DataType.NULL && ((Expr.Literal) expr).value != null;
+    }
+
+    // REWRITING EXPRESSIONS
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        return typed(new Expr.Assign(expr.name, rewrite(expr.value)), expr.type);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        return typed(new Expr.Binary(rewrite(expr.left), expr.operator, rewrite(expr.right)), expr.type);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        return typed(new Expr.Grouping(rewrite(expr.expression)), expr.type);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        Expr left = (expr.left == null) ? null : rewrite(expr.left);
+        return typed(new Expr.Logical(left, expr.operator, rewrite(expr.right)), expr.type);
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        return typed(new Expr.Unary(expr.operator, rewrite(expr.right)), expr.type);
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitIncrementOrDecrementExpr(Expr.IncrementOrDecrement expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitConvertExpr(Expr.Convert expr) {
+        return typed(new Expr.Convert(expr.conversion, rewrite(expr.expression)), expr.type);
+    }
+
+    // REWRITING STATEMENTS
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        return new Stmt.Block(rewriteAll(stmt.statements));
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        return new Stmt.Expression(rewrite(stmt.expression));
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        List<Stmt.ElseIf> elseIfBranch = null;
+
+        if (stmt.elseIfBranch != null){
+            elseIfBranch = new ArrayList<>(stmt.elseIfBranch.size());
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                elseIfBranch.add((Stmt.ElseIf) rewrite(elif));
+            }
+        }
+
+        return new Stmt.If(rewrite(stmt.condition), rewrite(stmt.thenBranch), elseIfBranch,
+                stmt.elseBranch == null ? null : rewrite(stmt.elseBranch));
+    }
+
+    @Override
+    public Stmt visitElseIfStmt(Stmt.ElseIf stmt) {
+        return new Stmt.ElseIf(rewrite(stmt.condition), rewrite(stmt.thenBranch));
+    }
+
+    @Override
+    public Stmt visitSwitchStmt(Stmt.Switch stmt) {
+        List<Stmt> branches = new ArrayList<>(stmt.branches.size());
+        for (Stmt branch : stmt.branches){
+            branches.add(rewrite(branch));
+        }
+
+        return new Stmt.Switch(rewrite(stmt.subject), stmt.table, branches,
+                stmt.defaultBranch == null ? null : rewrite(stmt.defaultBranch));
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        return new Stmt.Print(rewrite(stmt.expression));
+    }
+
+    @Override
+    public Stmt visitForLoopStmt(Stmt.ForLoop stmt) {
+        return new Stmt.ForLoop(rewrite(stmt.initialization), rewrite(stmt.condition), rewrite(stmt.update), rewrite(stmt.body));
+    }
+
+    // rewriting the loop can change whether it still counts, so the copy is a plain ALANG SA again
+    @Override
+    public Stmt visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        return rewrite(stmt.loop);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        return new Stmt.While(rewrite(stmt.condition), rewrite(stmt.body));
+    }
+
+    @Override
+    public Stmt visitDoWhileStmt(Stmt.DoWhile stmt) {
+        return new Stmt.DoWhile(rewrite(stmt.condition), rewrite(stmt.body));
+    }
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        return new Stmt.Var(stmt.dataType, stmt.name, stmt.initializer == null ? null : rewrite(stmt.initializer));
+    }
+
+    @Override
+    public Stmt visitInputStmt(Stmt.Input stmt) {
+        return stmt;
+    }
+}
@@ -0,0 +1,279 @@
+/* COMMON SUBEXPRESSIONS
+ * This pass computes an expression that is repeated in a run of statements
+ * only once: in
+ *     IPAKITA: (a*b+c) & " " & (a*b+c) * 2
+ *     x = a*b+c
+ * a temporary is declared for a*b+c before the IPAKITA, and all three copies
+ * read it instead. A run is a list of statements in a block that don't branch
+ * or loop (IPAKITA, DAWAT, MUGNA and expressions); a KUNG or a loop ends it.
+ *
+ * Two copies are the same value if they are the same expression over the same
+ * variables and none of them was written in between. Each write ('=', ++, --
+ * and DAWAT) gives the variable a new version, and the versions are part of
+ * what is compared, so a copy after a write is a new value. An expression in
+ * a statement that also writes one of its variables is never shared, since
+ * the statement could write it halfway through.
+ *
+ * The temporary is computed just before the statement with the first copy,
+ * which is only done for an expression that can fail, like NUMERO math, if
+ * nothing that can fail comes before it in that statement and it isn't in
+ * the right operand of a UG or O, which can be skipped. Like in
+ * LoopInvariantMotion, only NUMERO, TIPIK and TINUOD values get temporaries,
+ * and only when that saves evaluating at least two operations.
+ *
+ * Temporaries are named "$cse" and a number, which no program can use.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CommonSubexpressions extends AstRewriter {
+    private int temporaries;
+
+    // the number of each variable and how often it was written, for the keys
+    private final Map<Stmt.Var, Integer> ids = new IdentityHashMap<>();
+    private final Map<Stmt.Var, Integer> versions = new IdentityHashMap<>();
+
+    @Override
+    protected List<Stmt> rewriteAll(List<Stmt> statements){
+        List<Stmt> rewritten = new ArrayList<>(statements.size());
+        List<Stmt> run = new ArrayList<>();
+
+        for (Stmt stmt : statements){
+            if (isStraightLine(stmt)){
+                run.add(stmt);
+                continue;
+            }
+
+            new Run(run).rewriteInto(rewritten);
+            run.clear();
+            rewritten.add(rewrite(stmt));
+        }
+
+        new Run(run).rewriteInto(rewritten);
+        return rewritten;
+    }
+
+    private static boolean isStraightLine(Stmt stmt){
+        return stmt instanceof Stmt.Expression || stmt instanceof Stmt.Print
+                || stmt instanceof Stmt.Var || stmt instanceof Stmt.Input;
+    }
+
+    // the expression a straight line statement evaluates, null for DAWAT and MUGNA without a value
+    private static Expr expressionOf(Stmt stmt){
+        if (stmt instanceof Stmt.Expression) return ((Stmt.Expression) stmt).expression;
+        if (stmt instanceof Stmt.Print) return ((Stmt.Print) stmt).expression;
+        if (stmt instanceof Stmt.Var) return ((Stmt.Var) stmt).initializer;
+        return null;
+    }
+
+    private static Stmt withExpression(Stmt stmt, Expr expr){
+        if (stmt instanceof Stmt.Expression) return new Stmt.Expression(expr);
+        if (stmt instanceof Stmt.Print) return new Stmt.Print(expr);
+        if (stmt instanceof Stmt.Var){
+            Stmt.Var var = (Stmt.Var) stmt;
+            return new Stmt.Var(var.dataType, var.name, expr);
+        }
+        return stmt;
+    }
+
+    // the operations evaluating the expression takes
+    private static int operations(Expr expr){
+        if (expr instanceof Expr.Binary){
+            return 1 + operations(((Expr.Binary) expr).left) + operations(((Expr.Binary) expr).right);
+        }
+        if (expr instanceof Expr.Logical){
+            Expr.Logical logical = (Expr.Logical) expr;
+            return 1 + (logical.left == null ? 0 : operations(logical.left)) + operations(logical.right);
+        }
+        if (expr instanceof Expr.Unary) return 1 + operations(((Expr.Unary) expr).right);
+        if (expr instanceof Expr.Convert) return 1 + operations(((Expr.Convert) expr).expression);
+        if (expr instanceof Expr.Grouping) return operations(((Expr.Grouping) expr).expression);
+        return 0;
+    }
+
+    private class Run {
+        private final List<Stmt> statements;
+
+        // the key of every expression that could be shared, and how many copies of each are left
+        private final Map<Expr, String> keys = new IdentityHashMap<>();
+        private final Map<String, Integer> copies = new HashMap<>();
+        private final Map<String, Stmt.Var> computed = new HashMap<>();
+
+        private final List<Stmt> temporaryDeclarations = new ArrayList<>();
+        private boolean clean;
+
+        Run(List<Stmt> statements){
+            this.statements = statements;
+        }
+
+        void rewriteInto(List<Stmt> rewritten){
+            if (statements.isEmpty()) return;
+
+            // the keys depend on the versions, so they are all taken before rewriting
+            List<Set<Stmt.Var>> writes = new ArrayList<>(statements.size());
+            for (Stmt stmt : statements){
+                Set<Stmt.Var> written = Writes.of(stmt);
+                writes.add(written);
+
+                Expr expr = expressionOf(stmt);
+                if (expr != null) key(expr, written);
+                for (Stmt.Var var : written){
+                    versions.merge(var, 1, Integer::sum);
+                }
+            }
+
+            for (Stmt stmt : statements){
+                Expr expr = expressionOf(stmt);
+                if (expr == null){
+                    rewritten.add(stmt);
+                    continue;
+                }
+
+                clean = true;
+                Expr shared = share(expr);
+                rewritten.addAll(temporaryDeclarations);
+                temporaryDeclarations.clear();
+                rewritten.add(withExpression(stmt, shared));
+            }
+        }
+
+        /*
+         * The key of the expression, the same for expressions that have the same
+         * value: the expression with its variables numbered and versioned. null
+         * if it reads a variable the statement writes, or writes one itself.
+         */
+        private String key(Expr expr, Set<Stmt.Var> written){
+            String key;
+            if (expr instanceof Expr.Literal){
+                Expr.Literal literal = (Expr.Literal) expr;
+                return literal.type + ":" + literal.value;
+            } else if (expr instanceof Expr.Variable){
+                Stmt.Var declaration = ((Expr.Variable) expr).declaration;
+                if (declaration == null || written.contains(declaration)) return null;
+
+                int id = ids.computeIfAbsent(declaration, var -> ids.size());
+                return "v" + id + "." + versions.getOrDefault(declaration, 0);
+            } else if (expr instanceof Expr.Grouping){
+                return key(((Expr.Grouping) expr).expression, written);
+            } else if (expr instanceof Expr.Binary){
+                Expr.Binary binary = (Expr.Binary) expr;
+                String left = key(binary.left, written);
+                String right = key(binary.right, written);
+                key = (left == null || right == null) ? null : "(" + left + " " + binary.operator.getTokenType() + " " + right + ")";
+            } else if (expr instanceof Expr.Logical){
+                Expr.Logical logical = (Expr.Logical) expr;
+                String left = (logical.left == null) ? "" : key(logical.left, written);
+                String right = key(logical.right, written);
+                key = (left == null || right == null) ? null : "(" + left + " " + logical.operator.getTokenType() + " " + right + ")";
+            } else if (expr instanceof Expr.Unary){
+                Expr.Unary unary = (Expr.Unary) expr;
+                String right = key(unary.right, written);
+                key = (right == null) ? null : "(" + unary.operator.getTokenType() + " " + right + ")";
+            } else if (expr instanceof Expr.Convert){
+                Expr.Convert convert = (Expr.Convert) expr;
+                String inner = key(convert.expression, written);
+                key = (inner == null) ? null : "(" + convert.conversion + " " + inner + ")";
+            } else {
+                // assignments, ++ and --: their operands can still be shared
+                if (expr instanceof Expr.Assign) key(((Expr.Assign) expr).value, written);
+                return null;
+            }
+
+            // there are no PULONG variables, and a LETRA can only be a variable here
+            if (key != null && (expr.type.isNumber() || expr.type == DataType.TINUOD)){
+                keys.put(expr, key);
+                copies.merge(key, 1, Integer::sum);
+            }
+            return key;
+        }
+
+        /*
+         * Rewrites the expression in the order the engines evaluate it, reading
+         * the temporaries of values computed already, and computing values with
+         * copies left into new temporaries.
+         */
+        private Expr share(Expr expr){
+            String key = keys.get(expr);
+            if (key != null){
+                Stmt.Var temporary = computed.get(key);
+                if (temporary != null){
+                    forget(expr);
+                    return read(temporary);
+                }
+
+                int left = copies.get(key);
+                boolean worthIt = operations(expr) * (left - 1) >= 2;
+                if (worthIt && (clean || Purity.isPure(expr))){
+                    forget(expr);
+                    temporary = temporary("$cse" + (++temporaries), expr);
+                    temporaryDeclarations.add(temporary);
+                    computed.put(key, temporary);
+                    return read(temporary);
+                }
+                copies.put(key, left - 1);
+            }
+
+            Expr shared;
+            if (expr instanceof Expr.Binary){
+                Expr.Binary binary = (Expr.Binary) expr;
+                Expr left = share(binary.left);
+                Expr right = share(binary.right);
+                shared = typed(new Expr.Binary(left, binary.operator, right), expr.type);
+            } else if (expr instanceof Expr.Logical){
+                // the right operand of UG and O may not be evaluated at all
+                Expr.Logical logical = (Expr.Logical) expr;
+                Expr left = (logical.left == null) ? null : share(logical.left);
+                if (isShortCircuit(logical)) clean = false;
+                Expr right = share(logical.right);
+                shared = typed(new Expr.Logical(left, logical.operator, right), expr.type);
+            } else if (expr instanceof Expr.Grouping){
+                shared = typed(new Expr.Grouping(share(((Expr.Grouping) expr).expression)), expr.type);
+            } else if (expr instanceof Expr.Unary){
+                Expr.Unary unary = (Expr.Unary) expr;
+                shared = typed(new Expr.Unary(unary.operator, share(unary.right)), expr.type);
+            } else if (expr instanceof Expr.Convert){
+                Expr.Convert convert = (Expr.Convert) expr;
+                shared = typed(new Expr.Convert(convert.conversion, share(convert.expression)), expr.type);
+            } else if (expr instanceof Expr.Assign){
+                Expr.Assign assign = (Expr.Assign) expr;
+                shared = typed(new Expr.Assign(assign.name, share(assign.value)), expr.type);
+            } else {
+                // literals, variables, ++ and --
+                shared = expr;
+            }
+
+            if (Purity.failsItself(expr)) clean = false;
+            return shared;
+        }
+
+        // the copies inside an expression that won't be evaluated any more
+        private void forget(Expr expr){
+            String key = keys.get(expr);
+            if (key != null) copies.merge(key, -1, Integer::sum);
+
+            if (expr instanceof Expr.Binary){
+                forget(((Expr.Binary) expr).left);
+                forget(((Expr.Binary) expr).right);
+            } else if (expr instanceof Expr.Logical){
+                if (((Expr.Logical) expr).left != null) forget(((Expr.Logical) expr).left);
+                forget(((Expr.Logical) expr).right);
+            } else if (expr instanceof Expr.Grouping){
+                forget(((Expr.Grouping) expr).expression);
+            } else if (expr instanceof Expr.Unary){
+                forget(((Expr.Unary) expr).right);
+            } else if (expr instanceof Expr.Convert){
+                forget(((Expr.Convert) expr).expression);
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/* CONSTANT FOLDER
+ * This pass computes the expressions whose operands are all literals before
+ * the program runs and puts the result in their place as a literal:
+ * arithmetic, negation, conversions, comparisons, UG/O/DILI and '&'. The
+ * results are the ones the Interpreter would compute, with the conversions
+ * the TypeChecker made explicit: NUMERO math is exact 32-bit math, TIPIK math
+ * is IEEE 754, and text is what IPAKITA would print.
+ *
+ * A NUMERO operation that would fail (an overflow, a division or modulo by
+ * zero) is left in the tree, so the error still happens at run time, and
+ * only if the operation is reached.
+ *
+ * UG and O skip their right operand once the left one decides, so a constant
+ * left operand folds them even if the right one isn't constant: OO O x is OO
+ * and OO UG x is x. A constant right operand that doesn't decide leaves the
+ * left one: x UG OO and x O DILI are x.
+ *
+ * A variable that is declared with a constant initializer and never assigned
+ * afterwards (by '=', ++, -- or DAWAT) always has that value, so its reads
+ * are replaced by the constant too, which lets expressions using it fold.
+ *
+ * Text joined with '&' is associative, so a literal at the end of a '&' chain
+ * is joined with the literal before it even if the chain starts with a
+ * variable: x & "a" & "b" becomes x & "ab".
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ConstantFolder extends AstRewriter {
+    private Set<Stmt.Var> written;
+    private final Map<Stmt.Var, Expr.Literal> constants = new IdentityHashMap<>();
+
+    @Override
+    public List<Stmt> rewrite(List<Stmt> program){
+        written = Writes.of(program);
+        return super.rewrite(program);
+    }
+
+    private static Object value(Expr expr){
+        return ((Expr.Literal) expr).value;
+    }
+
+    // FOLDING EXPRESSIONS
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        Expr.Literal constant = constants.get(expr.declaration);
+        return (constant == null) ? expr : literal(constant.type, constant.value);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        Expr inner = rewrite(expr.expression);
+        return isConstant(inner) ? inner : typed(new Expr.Grouping(inner), expr.type);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = rewrite(expr.left);
+        Expr right = rewrite(expr.right);
+
+        if (expr.type == DataType.PULONG && isConstant(right)){
+            if (isConstant(left)){
+                return literal(DataType.PULONG, (String) value(left) + value(right));
+            }
+
+            // x & "a" & "b" -> x & "ab"
+            if (left instanceof Expr.Binary && left.type == DataType.PULONG && isConstant(((Expr.Binary) left).right)){
+                Expr.Binary chain = (Expr.Binary) left;
+                Expr joined = literal(DataType.PULONG, (String) value(chain.right) + value(right));
+                return typed(new Expr.Binary(chain.left, chain.operator, joined), DataType.PULONG);
+            }
+        }
+
+        if (isConstant(left) && isConstant(right)){
+            TokenType opType = expr.operator.getTokenType();
+
+            if (expr.type == DataType.NUMERO){
+                Integer result = arithmetic(opType, (Integer) value(left), (Integer) value(right));
+                if (result != null) return literal(DataType.NUMERO, result);
+            } else if (expr.type == DataType.TIPIK){
+                return literal(DataType.TIPIK, arithmetic(opType, (Double) value(left), (Double) value(right)));
+            }
+        }
+
+        return typed(new Expr.Binary(left, expr.operator, right), expr.type);
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = rewrite(expr.right);
+        if (expr.operator.getTokenType() != TokenType.NEGATIVE) return right;
+
+        if (isConstant(right)){
+            if (expr.type == DataType.TIPIK){
+                return literal(DataType.TIPIK, -(Double) value(right));
+            }
+
+            int value = (Integer) value(right);
+            if (value != Integer.MIN_VALUE) return literal(DataType.NUMERO, -value);
+        }
+
+        return typed(new Expr.Unary(expr.operator, right), expr.type);
+    }
+
+    @Override
+    public Expr visitConvertExpr(Expr.Convert expr) {
+        Expr inner = rewrite(expr.expression);
+        if (!isConstant(inner)) return typed(new Expr.Convert(expr.conversion, inner), expr.type);
+
+        Object value = value(inner);
+        switch (expr.conversion){
+            case TO_DOUBLE:
+                return literal(DataType.TIPIK, (double) (Integer) value);
+            case TO_INTEGER:
+                return literal(DataType.NUMERO, (int) (double) (Double) value);
+            case TO_BOOLEAN:
+                return literal(DataType.TINUOD, isTruthy(inner.type, value));
+            default:
+                return literal(DataType.PULONG, stringify(inner.type, value));
+        }
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        TokenType opType = expr.operator.getTokenType();
+
+        if (opType == TokenType.LOGIC_NOT){
+            Expr right = rewrite(expr.right);
+            if (isConstant(right)) return literal(DataType.TINUOD, !(Boolean) value(right));
+            return typed(new Expr.Logical(null, expr.operator, right), expr.type);
+        }
+
+        Expr left = rewrite(expr.left);
+        Expr right = rewrite(expr.right);
+
+        if (opType == TokenType.LOGIC_AND || opType == TokenType.LOGIC_OR){
+            // the value of an operand that decides: DILI for UG, OO for O
+            boolean decides = opType == TokenType.LOGIC_OR;
+            if (isConstant(left)) return ((Boolean) value(left) == decides) ? left : right;
+            if (isConstant(right) && (Boolean) value(right) != decides) return left;
+        }
+
+        if (!isConstant(left) || !isConstant(right)){
+            return typed(new Expr.Logical(left, expr.operator, right), expr.type);
+        }
+
+        Object l = value(left), r = value(right);
+        boolean result;
+        switch (left.type){
+            case NUMERO: result = compare(opType, (Integer) l, (Integer) r); break;
+            case TIPIK: result = compare(opType, (Double) l, (Double) r); break;
+            default: result = (opType == TokenType.NOT_EQUAL) != l.equals(r);
+        }
+
+        return literal(DataType.TINUOD, result);
+    }
+
+    // FOLDING STATEMENTS
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        Expr initializer = (stmt.initializer == null) ? null : rewrite(stmt.initializer);
+
+        if (isConstant(initializer) && !written.contains(stmt)){
+            constants.put(stmt, (Expr.Literal) initializer);
+        }
+
+        return new Stmt.Var(stmt.dataType, stmt.name, initializer);
+    }
+
+    // THE INTERPRETER'S OPERATIONS
+    // null for an operation that fails at run time
+    private static Integer arithmetic(TokenType opType, int left, int right){
+        try {
+            switch (opType){
+                case PLUS: return Math.addExact(left, right);
+                case MINUS: return Math.subtractExact(left, right);
+                case MULTIPLY: return Math.multiplyExact(left, right);
+                case DIVIDE:
+                    if (right == 0 || (left == Integer.MIN_VALUE && right == -1)) return null;
+                    return left / right;
+                case MODULO:
+                    if (right == 0) return null;
+                    return left % right;
+                default: return null;
+            }
+        } catch (ArithmeticException e){
+            return null;
+        }
+    }
+
+    private static double arithmetic(TokenType opType, double left, double right){
+        switch (opType){
+            case PLUS: return left + right;
+            case MINUS: return left - right;
+            case MULTIPLY: return left * right;
+            case DIVIDE: return left / right;
+            default: return left % right;
+        }
+    }
+
+    private static boolean compare(TokenType opType, double left, double right){
+        switch (opType){
+            case GREATER_THAN: return left > right;
+            case GREATER_OR_EQUAL: return left >= right;
+            case LESSER_THAN: return left < right;
+            case LESSER_OR_EQUAL: return left <= right;
+            case NOT_EQUAL: return left != right;
+            default: return left == right;
+        }
+    }
+
+    private static boolean isTruthy(DataType type, Object value){
+        switch (type){
+            case NUMERO: return (Integer) value != 0;
+            case TIPIK: return (Double) value != 0;
+            case LETRA: return true;
+            case TINUOD: return (Boolean) value;
+            default: return !value.equals("DILI");
+        }
+    }
+
+    private static String stringify(DataType type, Object value){
+        if (type == DataType.TINUOD) return (Boolean) value ? "OO" : "DILI";
+        return value.toString();
+    }
+}
@@ -0,0 +1,117 @@
+/* COUNTED LOOPS
+ * This pass finds the ALANG SA loops that count a NUMERO from one bound to
+ * another, the most common loop there is:
+ *     ALANG SA (MUGNA NUMERO i = a, i < b, i++)
+ *     ALANG SA (i = a, i <= b, ++i)
+ * and marks them with a Stmt.CountedLoop. The bound b is a literal or a
+ * variable the loop never writes, and the body never writes i, so once the
+ * initialization ran the number of iterations is known. An engine can then
+ * count them on a primitive int instead of evaluating the condition and the
+ * update on every iteration, storing i only for the body to read.
+ *
+ * The comparison may also be written the other way around (b > i). A loop
+ * counting down (i > b with a decrement) is counted the same way; the
+ * direction of the update has to be the one that reaches the bound,
+ * otherwise the loop is left as it is.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.Set;
+
+public class CountedLoops extends AstRewriter {
+
+    /*
+     * The number of iterations of a counted loop whose counter starts at start,
+     * or -1 if the last update would overflow, so the loop has to run as it is
+     * written to fail the same way.
+     */
+    public static long tripCount(int start, int limit, int step, boolean inclusive){
+        long distance = (step > 0) ? (long) limit - start : (long) start - limit;
+        long trips = Math.max(0, inclusive ? distance + 1 : distance);
+
+        long end = start + trips * step;
+        return (end == (int) end) ? trips : -1;
+    }
+
+    @Override
+    public Stmt visitForLoopStmt(Stmt.ForLoop stmt) {
+        Stmt.ForLoop loop = (Stmt.ForLoop) super.visitForLoopStmt(stmt);
+
+        // the rewritten loop isn't resolved yet, but it shares its variables with the original
+        Stmt.Var counter = counter(stmt.initialization);
+        if (counter == null || !(stmt.condition instanceof Expr.Logical)) return loop;
+
+        Expr.Logical comparison = (Expr.Logical) stmt.condition;
+        TokenType opType = comparison.operator.getTokenType();
+        Expr counterSide = comparison.left, limit = comparison.right;
+        if (!isCounter(counterSide, counter)){
+            counterSide = comparison.right;
+            limit = comparison.left;
+            opType = flip(opType);
+        }
+        if (!isCounter(counterSide, counter) || opType == null || flip(opType) == null) return loop;
+
+        int step = step(stmt.update, counter);
+        boolean counting = (opType == TokenType.LESSER_THAN || opType == TokenType.LESSER_OR_EQUAL) ? step > 0 : step < 0;
+        if (!counting) return loop;
+
+        Set<Stmt.Var> writes = Writes.of(stmt);
+        if (!isFixed(limit, writes) || Writes.of(stmt.body).contains(counter)) return loop;
+
+        boolean inclusive = opType == TokenType.LESSER_OR_EQUAL || opType == TokenType.GREATER_OR_EQUAL;
+        return new Stmt.CountedLoop(loop, (Expr.Variable) counterSide, limit, step, inclusive);
+    }
+
+    // the NUMERO the initialization assigns, null if it does something else
+    private static Stmt.Var counter(Stmt initialization){
+        Stmt.Var counter = null;
+        if (initialization instanceof Stmt.Var){
+            Stmt.Var var = (Stmt.Var) initialization;
+            if (var.initializer != null) counter = var;
+        } else if (initialization instanceof Stmt.Expression){
+            Expr expr = ((Stmt.Expression) initialization).expression;
+            if (expr instanceof Expr.Assign) counter = ((Expr.Assign) expr).declaration;
+        }
+
+        return (counter != null && DataType.of(counter.dataType) == DataType.NUMERO) ? counter : null;
+    }
+
+    private static boolean isCounter(Expr expr, Stmt.Var counter){
+        return expr instanceof Expr.Variable && ((Expr.Variable) expr).declaration == counter;
+    }
+
+    // the comparison with its operands swapped, null for one that isn't an ordering
+    private static TokenType flip(TokenType opType){
+        switch (opType){
+            case LESSER_THAN: return TokenType.GREATER_THAN;
+            case LESSER_OR_EQUAL: return TokenType.GREATER_OR_EQUAL;
+            case GREATER_THAN: return TokenType.LESSER_THAN;
+            case GREATER_OR_EQUAL: return TokenType.LESSER_OR_EQUAL;
+            default: return null;
+        }
+    }
+
+    // +1 for i++, -1 for i--, 0 for any other update
+    private static int step(Stmt update, Stmt.Var counter){
+        if (!(update instanceof Stmt.Expression)) return 0;
+
+        Expr expr = ((Stmt.Expression) update).expression;
+        if (!(expr instanceof Expr.IncrementOrDecrement)) return 0;
+
+        Expr.IncrementOrDecrement increment = (Expr.IncrementOrDecrement) expr;
+        if (increment.var.declaration != counter) return 0;
+        return (increment.operator.getTokenType() == TokenType.INCREMENT) ? +1 : -1;
+    }
+
+    // a NUMERO whose value can't change while the loop runs
+    private static boolean isFixed(Expr limit, Set<Stmt.Var> writes){
+        if (limit.type != DataType.NUMERO) return false;
+        if (isConstant(limit)) return true;
+        return limit instanceof Expr.Variable && !writes.contains(((Expr.Variable) limit).declaration);
+    }
+}
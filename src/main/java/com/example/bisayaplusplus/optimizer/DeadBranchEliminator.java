@@ -0,0 +1,160 @@
+/* DEAD BRANCH ELIMINATOR
+ * This pass removes the code that can never run, mostly what is left after
+ * constant folding:
+ *   - a KUNG branch whose condition is DILI is dropped, and a branch whose
+ *     condition is OO becomes the KUNG WALA of the chain, with everything
+ *     after it dropped. A chain without branches left is just its KUNG WALA
+ *   - a MINTRAS whose condition is DILI is dropped, a BUHATA ... MINTRAS whose
+ *     condition is DILI runs its body once, and an ALANG SA whose condition
+ *     is DILI only runs its initialization
+ *   - empty PUNDOK blocks are dropped, and so are empty branches at the end of
+ *     a chain without KUNG WALA when their conditions can be skipped
+ *
+ * A KUNG WALA whose block holds nothing but another KUNG chain is flattened
+ * into the outer chain as more KUNG DILI branches, so the whole chain is one
+ * Stmt.If whose conditions are tried one after the other.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeadBranchEliminator extends AstRewriter {
+    // an empty block, which rewriteAll drops. the Resolver sets its scope, so each is new
+    private static Stmt nothing(){
+        return new Stmt.Block(List.of());
+    }
+
+    private static boolean isNothing(Stmt stmt){
+        return stmt instanceof Stmt.Block && ((Stmt.Block) stmt).statements.isEmpty();
+    }
+
+    private static boolean isTrue(Expr condition){
+        return isConstant(condition) && (Boolean) ((Expr.Literal) condition).value;
+    }
+
+    private static boolean isFalse(Expr condition){
+        return isConstant(condition) && !(Boolean) ((Expr.Literal) condition).value;
+    }
+
+    @Override
+    protected List<Stmt> rewriteAll(List<Stmt> statements){
+        List<Stmt> rewritten = new ArrayList<>(statements.size());
+        for (Stmt stmt : statements){
+            Stmt live = rewrite(stmt);
+            if (!isNothing(live)) rewritten.add(live);
+        }
+        return rewritten;
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        List<Expr> conditions = new ArrayList<>();
+        List<Stmt> branches = new ArrayList<>();
+        Stmt elseBranch = null;
+
+        // the chain, with the chains nested in its KUNG WALA
+        Stmt.If chain = stmt;
+        while (chain != null){
+            conditions.add(rewrite(chain.condition));
+            branches.add(rewrite(chain.thenBranch));
+            if (chain.elseIfBranch != null){
+                for (Stmt.ElseIf elif : chain.elseIfBranch){
+                    conditions.add(rewrite(elif.condition));
+                    branches.add(rewrite(elif.thenBranch));
+                }
+            }
+
+            Stmt.If nested = nestedChain(chain.elseBranch);
+            if (nested == null && chain.elseBranch != null) elseBranch = rewrite(chain.elseBranch);
+            chain = nested;
+        }
+
+        // branches that can't be taken, and the ones after a branch that is always taken
+        for (int i = 0; i < conditions.size(); i++){
+            if (isFalse(conditions.get(i))){
+                conditions.remove(i);
+                branches.remove(i);
+                i--;
+            } else if (isTrue(conditions.get(i))){
+                elseBranch = branches.get(i);
+                conditions.subList(i, conditions.size()).clear();
+                branches.subList(i, branches.size()).clear();
+            }
+        }
+
+        if (elseBranch != null && isNothing(elseBranch)) elseBranch = null;
+
+        // with nothing after them, empty branches only matter for their conditions
+        if (elseBranch == null){
+            int last = branches.size() - 1;
+            while (last >= 0 && isNothing(branches.get(last)) && Purity.isPure(conditions.get(last))){
+                conditions.remove(last);
+                branches.remove(last);
+                last--;
+            }
+        }
+
+        if (conditions.isEmpty()){
+            return (elseBranch == null) ? nothing() : elseBranch;
+        }
+
+        List<Stmt.ElseIf> elseIfBranch = null;
+        if (conditions.size() > 1){
+            elseIfBranch = new ArrayList<>(conditions.size() - 1);
+            for (int i = 1; i < conditions.size(); i++){
+                elseIfBranch.add(new Stmt.ElseIf(conditions.get(i), branches.get(i)));
+            }
+        }
+
+        return new Stmt.If(conditions.get(0), branches.get(0), elseIfBranch, elseBranch);
+    }
+
+    // the KUNG chain that is all there is in a KUNG WALA, null if there is more (or nothing)
+    private static Stmt.If nestedChain(Stmt elseBranch){
+        if (elseBranch instanceof Stmt.If) return (Stmt.If) elseBranch;
+
+        if (elseBranch instanceof Stmt.Block){
+            List<Stmt> statements = ((Stmt.Block) elseBranch).statements;
+            if (statements.size() == 1 && statements.get(0) instanceof Stmt.If){
+                // a block with only a KUNG in it declares no variables, so it can go
+                return (Stmt.If) statements.get(0);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = rewrite(stmt.condition);
+        if (isFalse(condition)) return nothing();
+
+        return new Stmt.While(condition, rewrite(stmt.body));
+    }
+
+    @Override
+    public Stmt visitDoWhileStmt(Stmt.DoWhile stmt) {
+        Expr condition = rewrite(stmt.condition);
+        Stmt body = rewrite(stmt.body);
+        if (isFalse(condition)) return body;
+
+        return new Stmt.DoWhile(condition, body);
+    }
+
+    @Override
+    public Stmt visitForLoopStmt(Stmt.ForLoop stmt) {
+        Stmt initialization = rewrite(stmt.initialization);
+        Expr condition = rewrite(stmt.condition);
+
+        if (isFalse(condition)){
+            // the block keeps a loop variable declared by the initialization in a scope of its own
+            return new Stmt.Block(List.of(initialization));
+        }
+
+        return new Stmt.ForLoop(initialization, condition, rewrite(stmt.update), rewrite(stmt.body));
+    }
+}
@@ -0,0 +1,221 @@
+/* LOOP INVARIANT MOTION
+ * This pass computes the parts of a loop that give the same value on every
+ * iteration once, before the loop, instead of on every iteration:
+ *     MINTRAS (i < rawr * 2)
+ * becomes a block that declares a temporary for rawr * 2 and then loops on
+ * i < (the temporary). An expression is invariant if the loop never writes
+ * the variables it reads: no '=', ++, -- or DAWAT on them anywhere in the
+ * loop, and they are not declared inside it.
+ *
+ * Only NUMERO, TIPIK and TINUOD expressions with an operator are hoisted,
+ * the biggest invariant ones; text has no variables to keep it in.
+ * An expression that can't fail (see Purity) can be hoisted from anywhere in
+ * the loop, since computing it once too often changes nothing. One that can
+ * fail, like NUMERO math, is only hoisted from the condition of a MINTRAS or
+ * ALANG SA, which is evaluated before anything else in the loop, and only if
+ * nothing that can fail is evaluated before it and it isn't in the right
+ * operand of a UG or O, which can be skipped. Then the same error happens
+ * at the same point of the program, and if there is none, the value can't
+ * change later.
+ *
+ * Temporaries are named "$inv" and a number, which no program can use.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public class LoopInvariantMotion extends AstRewriter {
+    private int temporaries;
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Loop loop = new Loop(stmt);
+        Expr condition = loop.hoistFromCondition(rewrite(stmt.condition), true);
+        Stmt body = loop.hoistFromBody(rewrite(stmt.body));
+
+        return loop.wrap(new Stmt.While(condition, body));
+    }
+
+    @Override
+    public Stmt visitDoWhileStmt(Stmt.DoWhile stmt) {
+        // the body runs before the condition, so only what can't fail is hoisted
+        Loop loop = new Loop(stmt);
+        Stmt body = loop.hoistFromBody(rewrite(stmt.body));
+        Expr condition = loop.hoistFromCondition(rewrite(stmt.condition), false);
+
+        return loop.wrap(new Stmt.DoWhile(condition, body));
+    }
+
+    @Override
+    public Stmt visitForLoopStmt(Stmt.ForLoop stmt) {
+        // the temporaries are computed before the initialization, so it mustn't be able to fail either
+        Loop loop = new Loop(stmt);
+        Stmt initialization = rewrite(stmt.initialization);
+        Expr condition = loop.hoistFromCondition(rewrite(stmt.condition), !canFail(stmt.initialization));
+        Stmt update = loop.hoistFromBody(rewrite(stmt.update));
+        Stmt body = loop.hoistFromBody(rewrite(stmt.body));
+
+        return loop.wrap(new Stmt.ForLoop(initialization, condition, update, body));
+    }
+
+    private static boolean canFail(Stmt initialization){
+        if (initialization instanceof Stmt.Var){
+            Expr initializer = ((Stmt.Var) initialization).initializer;
+            return initializer != null && !Purity.isPure(initializer);
+        }
+
+        Expr expr = ((Stmt.Expression) initialization).expression;
+        if (expr instanceof Expr.Assign) expr = ((Expr.Assign) expr).value;
+        return !Purity.isPure(expr);
+    }
+
+    // expressions that are worth a temporary: the ones with an operator
+    private static boolean isWorthHoisting(Expr expr){
+        if (expr instanceof Expr.Grouping) return isWorthHoisting(((Expr.Grouping) expr).expression);
+        if (expr instanceof Expr.Unary) return ((Expr.Unary) expr).operator.getTokenType() == TokenType.NEGATIVE;
+        return expr instanceof Expr.Binary || expr instanceof Expr.Logical || expr instanceof Expr.Convert;
+    }
+
+    private class Loop {
+        private final Set<Stmt.Var> writes;
+        private final Set<Stmt.Var> declared = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Stmt> temporaryDeclarations = new ArrayList<>();
+
+        // the loop as it was resolved, since the rewritten copy isn't yet
+        Loop(Stmt loop){
+            writes = Writes.of(loop);
+            new Declarations().rewrite(loop);
+        }
+
+        Stmt wrap(Stmt loop){
+            if (temporaryDeclarations.isEmpty()) return loop;
+
+            // the block keeps the temporaries in a scope of their own
+            temporaryDeclarations.add(loop);
+            return new Stmt.Block(temporaryDeclarations);
+        }
+
+        Stmt hoistFromBody(Stmt body){
+            return new BodyHoister().rewrite(body);
+        }
+
+        Expr hoistFromCondition(Expr condition, boolean evaluatedFirst){
+            return new ConditionHoister(evaluatedFirst).hoist(condition);
+        }
+
+        // reads no variable the loop writes or declares. new temporaries aren't resolved yet, so they don't count
+        boolean isInvariant(Expr expr){
+            if (expr instanceof Expr.Literal) return true;
+
+            if (expr instanceof Expr.Variable){
+                Stmt.Var declaration = ((Expr.Variable) expr).declaration;
+                return declaration != null && !writes.contains(declaration) && !declared.contains(declaration);
+            }
+
+            if (expr instanceof Expr.Binary){
+                return isInvariant(((Expr.Binary) expr).left) && isInvariant(((Expr.Binary) expr).right);
+            }
+
+            if (expr instanceof Expr.Logical){
+                Expr.Logical logical = (Expr.Logical) expr;
+                return (logical.left == null || isInvariant(logical.left)) && isInvariant(logical.right);
+            }
+
+            if (expr instanceof Expr.Grouping) return isInvariant(((Expr.Grouping) expr).expression);
+            if (expr instanceof Expr.Unary) return isInvariant(((Expr.Unary) expr).right);
+            if (expr instanceof Expr.Convert) return isInvariant(((Expr.Convert) expr).expression);
+
+            // assignments, ++ and --
+            return false;
+        }
+
+        Expr hoist(Expr expr){
+            Stmt.Var temporary = temporary("$inv" + (++temporaries), expr);
+            temporaryDeclarations.add(temporary);
+            return read(temporary);
+        }
+
+        private boolean canHoist(Expr expr){
+            // there are no PULONG variables, and a LETRA can only be a variable here
+            boolean hasVariableType = expr.type.isNumber() || expr.type == DataType.TINUOD;
+            return hasVariableType && isWorthHoisting(expr) && isInvariant(expr);
+        }
+
+        // the declarations made in the loop, which are new on every iteration
+        private class Declarations extends AstRewriter {
+            @Override
+            public Stmt visitVarStmt(Stmt.Var stmt) {
+                declared.add(stmt);
+                return stmt;
+            }
+        }
+
+        // hoists what can't fail from statements run on some iterations, maybe none
+        private class BodyHoister extends AstRewriter {
+            @Override
+            protected Expr rewrite(Expr expr){
+                if (canHoist(expr) && Purity.isPure(expr)) return hoist(expr);
+                return super.rewrite(expr);
+            }
+        }
+
+        /*
+         * Hoists from a condition that is evaluated on every iteration. Walking
+         * the expression in the order the engines evaluate it, an expression
+         * that can fail is hoisted while nothing that can fail came before it.
+         */
+        private class ConditionHoister {
+            private boolean clean;
+
+            ConditionHoister(boolean evaluatedFirst){
+                this.clean = evaluatedFirst;
+            }
+
+            Expr hoist(Expr expr){
+                if (canHoist(expr)){
+                    if (Purity.isPure(expr)) return Loop.this.hoist(expr);
+                    if (clean) return Loop.this.hoist(expr);
+                }
+
+                Expr hoisted;
+                if (expr instanceof Expr.Binary){
+                    Expr.Binary binary = (Expr.Binary) expr;
+                    Expr left = hoist(binary.left);
+                    Expr right = hoist(binary.right);
+                    hoisted = typed(new Expr.Binary(left, binary.operator, right), expr.type);
+                } else if (expr instanceof Expr.Logical){
+                    // the right operand of UG and O is only evaluated on some iterations, maybe none
+                    Expr.Logical logical = (Expr.Logical) expr;
+                    Expr left = (logical.left == null) ? null : hoist(logical.left);
+                    if (isShortCircuit(logical)) clean = false;
+                    Expr right = hoist(logical.right);
+                    hoisted = typed(new Expr.Logical(left, logical.operator, right), expr.type);
+                } else if (expr instanceof Expr.Grouping){
+                    hoisted = typed(new Expr.Grouping(hoist(((Expr.Grouping) expr).expression)), expr.type);
+                } else if (expr instanceof Expr.Unary){
+                    Expr.Unary unary = (Expr.Unary) expr;
+                    hoisted = typed(new Expr.Unary(unary.operator, hoist(unary.right)), expr.type);
+                } else if (expr instanceof Expr.Convert){
+                    Expr.Convert convert = (Expr.Convert) expr;
+                    hoisted = typed(new Expr.Convert(convert.conversion, hoist(convert.expression)), expr.type);
+                } else {
+                    // leaves, assignments, ++ and --
+                    hoisted = expr;
+                }
+
+                // what was left in the condition has now been evaluated
+                if (Purity.failsItself(expr)) clean = false;
+                return hoisted;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/* PASS MANAGER
+ * Runs the optimization passes over a resolved program, in the order of
+ * PIPELINE, and resolves the program again after each one, since every pass
+ * reads the declarations. The optimization level picks the passes, like the
+ * -O option of a C compiler:
+ *   - 0: no passes, the program runs as it was written
+ *   - 1: the passes that only remove work: constant folding and dead branches
+ *   - 2: all of them, the default
+ *
+ * To see what the passes do, the manager can print the program before the
+ * first pass and after each pass (see AstPrinter), and how long each pass
+ * took, to streams of their own.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.interpreter.Resolver;
+import com.example.bisayaplusplus.parser.AstPrinter;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class PassManager {
+    public static final int MAX_LEVEL = 2;
+    public static final int DEFAULT_LEVEL = MAX_LEVEL;
+
+    private static final List<Pass> PIPELINE = List.of(
+            new Pass("constant-folding", 1, ConstantFolder::new),
+            new Pass("dead-branches", 1, DeadBranchEliminator::new),
+            new Pass("switch-lowering", 2, SwitchLowering::new),
+            new Pass("loop-invariant-motion", 2, LoopInvariantMotion::new),
+            new Pass("common-subexpressions", 2, CommonSubexpressions::new),
+            new Pass("counted-loops", 2, CountedLoops::new));
+
+    private final int level;
+    private final PrintStream dumps;        // null to not print the program
+    private final PrintStream timings;      // null to not print the times
+
+    public PassManager(int level){
+        this(level, null, null);
+    }
+
+    public PassManager(int level, PrintStream dumps, PrintStream timings){
+        if (level < 0 || level > MAX_LEVEL){
+            throw new IllegalArgumentException("Unknown optimization level " + level);
+        }
+        this.level = level;
+        this.dumps = dumps;
+        this.timings = timings;
+    }
+
+    // the level of a -O option, like -O1
+    public static int parseLevel(String option){
+        if (option.length() == 3 && option.startsWith("-O") && Character.isDigit(option.charAt(2))){
+            int level = option.charAt(2) - '0';
+            if (level <= MAX_LEVEL) return level;
+        }
+        throw new IllegalArgumentException("Unknown optimization level " + option);
+    }
+
+    public int getLevel(){
+        return level;
+    }
+
+    // returns the optimized copy of the program. resolver must be the one that resolved it
+    public Program run(Program program, Resolver resolver){
+        dump("input", program);
+
+        for (Pass pass : PIPELINE){
+            if (pass.level > level) continue;
+
+            long start = System.nanoTime();
+            program = resolver.resolve(pass.create.get().rewrite(program.statements));
+            long elapsed = System.nanoTime() - start;
+
+            if (timings != null) timings.printf("%-24s %8.3f ms%n", pass.name, elapsed / 1e6);
+            dump(pass.name, program);
+        }
+        return program;
+    }
+
+    private void dump(String after, Program program){
+        if (dumps == null) return;
+
+        dumps.println("=== " + after + " ===");
+        dumps.print(new AstPrinter().print(program.statements));
+    }
+
+    private static class Pass {
+        final String name;
+        final int level;                    // the lowest level that runs it
+        final Supplier<AstRewriter> create;
+
+        Pass(String name, int level, Supplier<AstRewriter> create){
+            this.name = name;
+            this.level = level;
+            this.create = create;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/* PURITY
+ * Whether evaluating an expression of a resolved tree can be skipped, or done
+ * at another time, without changing what the program does: it assigns no
+ * variable and it can't fail. NUMERO arithmetic and negation can overflow,
+ * and reading a variable that might not be assigned yet can fail, so those
+ * are not pure; everything else the TypeChecker accepted can't fail.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+
+final class Purity {
+    private Purity(){}
+
+    static boolean isPure(Expr expr){
+        if (expr instanceof Expr.Literal) return true;
+
+        if (expr instanceof Expr.Variable){
+            return isAlwaysAssigned(((Expr.Variable) expr).declaration);
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return isPure(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Convert){
+            return isPure(((Expr.Convert) expr).expression);
+        }
+
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            return expr.type != DataType.NUMERO && isPure(binary.left) && isPure(binary.right);
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            boolean canOverflow = expr.type == DataType.NUMERO && unary.operator.getTokenType() == TokenType.NEGATIVE;
+            return !canOverflow && isPure(unary.right);
+        }
+
+        if (expr instanceof Expr.Logical){
+            Expr.Logical logical = (Expr.Logical) expr;
+            return (logical.left == null || isPure(logical.left)) && isPure(logical.right);
+        }
+
+        // assignments, ++ and --
+        return false;
+    }
+
+    /*
+     * Whether evaluating the expression can fail apart from evaluating its
+     * operands. Assignments, ++ and -- count as failing, their operands aren't
+     * looked at. Unresolved variables are the temporaries of a pass.
+     */
+    static boolean failsItself(Expr expr){
+        if (expr instanceof Expr.Binary) return expr.type == DataType.NUMERO;
+        if (expr instanceof Expr.Unary){
+            return expr.type == DataType.NUMERO && ((Expr.Unary) expr).operator.getTokenType() == TokenType.NEGATIVE;
+        }
+        if (expr instanceof Expr.Variable){
+            Stmt.Var declaration = ((Expr.Variable) expr).declaration;
+            return declaration != null && !isAlwaysAssigned(declaration);
+        }
+        return expr instanceof Expr.Assign || expr instanceof Expr.IncrementOrDecrement;
+    }
+
+    // a variable with an initializer, except a LETRA, which DAWAT can leave unassigned
+    static boolean isAlwaysAssigned(Stmt.Var declaration){
+        return declaration.initializer != null && DataType.of(declaration.dataType) != DataType.LETRA;
+    }
+}
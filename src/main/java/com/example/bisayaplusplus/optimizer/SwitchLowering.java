@@ -0,0 +1,125 @@
+/* SWITCH LOWERING
+ * This pass turns a KUNG chain that compares one NUMERO or LETRA variable
+ * with constants, like a menu:
+ *     KUNG (x == 1) ... KUNG DILI (x == 2) ... KUNG DILI (x == 3) ...
+ * into a Stmt.Switch, which reads the variable once and finds the branch in a
+ * SwitchTable instead of trying the conditions one after the other.
+ *
+ * Only a run of at least MIN_BRANCHES such branches is lowered. Branches
+ * before the run stay a KUNG chain whose KUNG WALA is the switch, and the
+ * branches after it become the switch's default. A key that is repeated
+ * selects its first branch, like in the chain, so the later one is dropped.
+ *
+ * The conditions of the run can't assign or fail once the variable was read,
+ * so reading it once gives the same result, including the error of a variable
+ * that was never assigned.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import com.example.bisayaplusplus.parser.SwitchTable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SwitchLowering extends AstRewriter {
+    // below this, trying the conditions is as fast as the table
+    private static final int MIN_BRANCHES = 3;
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        List<Expr> conditions = new ArrayList<>();
+        List<Stmt> branches = new ArrayList<>();
+
+        conditions.add(rewrite(stmt.condition));
+        branches.add(rewrite(stmt.thenBranch));
+        if (stmt.elseIfBranch != null){
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                conditions.add(rewrite(elif.condition));
+                branches.add(rewrite(elif.thenBranch));
+            }
+        }
+        Stmt elseBranch = (stmt.elseBranch == null) ? null : rewrite(stmt.elseBranch);
+
+        return lower(conditions, branches, elseBranch);
+    }
+
+    private Stmt lower(List<Expr> conditions, List<Stmt> branches, Stmt elseBranch){
+        for (int start = 0; start < conditions.size(); start++){
+            Expr.Variable subject = subject(conditions.get(start));
+            if (subject == null) continue;
+
+            int end = start + 1;
+            while (end < conditions.size() && sameVariable(subject, subject(conditions.get(end)))){
+                end++;
+            }
+            if (end - start < MIN_BRANCHES){
+                start = end - 1;
+                continue;
+            }
+
+            List<Integer> keys = new ArrayList<>();
+            List<Stmt> cases = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (int i = start; i < end; i++){
+                int key = key(conditions.get(i));
+                if (seen.add(key)){
+                    keys.add(key);
+                    cases.add(branches.get(i));
+                }
+            }
+
+            Stmt defaultBranch = (end < conditions.size())
+                    ? lower(conditions.subList(end, conditions.size()), branches.subList(end, branches.size()), elseBranch)
+                    : elseBranch;
+            Stmt dispatch = new Stmt.Switch(subject, new SwitchTable(keys.stream().mapToInt(Integer::intValue).toArray()),
+                    cases, defaultBranch);
+
+            return (start == 0) ? dispatch : chain(conditions.subList(0, start), branches.subList(0, start), dispatch);
+        }
+
+        return chain(conditions, branches, elseBranch);
+    }
+
+    private static Stmt.If chain(List<Expr> conditions, List<Stmt> branches, Stmt elseBranch){
+        List<Stmt.ElseIf> elseIfBranch = null;
+        if (conditions.size() > 1){
+            elseIfBranch = new ArrayList<>(conditions.size() - 1);
+            for (int i = 1; i < conditions.size(); i++){
+                elseIfBranch.add(new Stmt.ElseIf(conditions.get(i), branches.get(i)));
+            }
+        }
+
+        return new Stmt.If(conditions.get(0), branches.get(0), elseIfBranch, elseBranch);
+    }
+
+    // the variable of a (variable == constant) condition, null for any other condition
+    private static Expr.Variable subject(Expr condition){
+        if (!(condition instanceof Expr.Logical)) return null;
+
+        Expr.Logical comparison = (Expr.Logical) condition;
+        if (comparison.operator.getTokenType() != TokenType.DOUBLE_EQUAL) return null;
+
+        Expr variable = isConstant(comparison.right) ? comparison.left : comparison.right;
+        Expr constant = (variable == comparison.left) ? comparison.right : comparison.left;
+        if (!(variable instanceof Expr.Variable) || !isConstant(constant)) return null;
+
+        return (variable.type == DataType.NUMERO || variable.type == DataType.LETRA) ? (Expr.Variable) variable : null;
+    }
+
+    private static boolean sameVariable(Expr.Variable subject, Expr.Variable other){
+        return other != null && other.declaration == subject.declaration;
+    }
+
+    // the constant of a condition subject() accepted, a LETRA by its char code
+    private static int key(Expr condition){
+        Expr.Logical comparison = (Expr.Logical) condition;
+        Object value = ((Expr.Literal) (isConstant(comparison.right) ? comparison.right : comparison.left)).value;
+        return (value instanceof Character) ? (Character) value : (Integer) value;
+    }
+}
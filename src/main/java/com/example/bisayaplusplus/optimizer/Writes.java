@@ -0,0 +1,119 @@
+/* WRITES
+ * The variables a part of a resolved tree can assign, by their declarations:
+ * the targets of '=', of ++ and -- and of DAWAT. A variable that is not in
+ * the set keeps its value for as long as that part of the tree runs.
+ */
+
+package com.example.bisayaplusplus.optimizer;
+
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+final class Writes {
+    private Writes(){}
+
+    static Set<Stmt.Var> of(List<Stmt> statements){
+        Set<Stmt.Var> writes = newSet();
+        for (Stmt stmt : statements){
+            add(stmt, writes);
+        }
+        return writes;
+    }
+
+    static Set<Stmt.Var> of(Stmt stmt){
+        Set<Stmt.Var> writes = newSet();
+        add(stmt, writes);
+        return writes;
+    }
+
+    static Set<Stmt.Var> of(Expr expr){
+        Set<Stmt.Var> writes = newSet();
+        add(expr, writes);
+        return writes;
+    }
+
+    private static Set<Stmt.Var> newSet(){
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static void add(Stmt stmt, Set<Stmt.Var> writes){
+        if (stmt == null) return;
+
+        if (stmt instanceof Stmt.Expression){
+            add(((Stmt.Expression) stmt).expression, writes);
+        } else if (stmt instanceof Stmt.Print){
+            add(((Stmt.Print) stmt).expression, writes);
+        } else if (stmt instanceof Stmt.Var){
+            add(((Stmt.Var) stmt).initializer, writes);
+        } else if (stmt instanceof Stmt.Block){
+            for (Stmt statement : ((Stmt.Block) stmt).statements){
+                add(statement, writes);
+            }
+        } else if (stmt instanceof Stmt.If){
+            Stmt.If ifStmt = (Stmt.If) stmt;
+            add(ifStmt.condition, writes);
+            add(ifStmt.thenBranch, writes);
+            if (ifStmt.elseIfBranch != null){
+                for (Stmt.ElseIf elif : ifStmt.elseIfBranch){
+                    add(elif, writes);
+                }
+            }
+            add(ifStmt.elseBranch, writes);
+        } else if (stmt instanceof Stmt.Switch){
+            Stmt.Switch switchStmt = (Stmt.Switch) stmt;
+            add(switchStmt.subject, writes);
+            for (Stmt branch : switchStmt.branches){
+                add(branch, writes);
+            }
+            add(switchStmt.defaultBranch, writes);
+        } else if (stmt instanceof Stmt.ElseIf){
+            add(((Stmt.ElseIf) stmt).condition, writes);
+            add(((Stmt.ElseIf) stmt).thenBranch, writes);
+        } else if (stmt instanceof Stmt.ForLoop){
+            Stmt.ForLoop loop = (Stmt.ForLoop) stmt;
+            add(loop.initialization, writes);
+            add(loop.condition, writes);
+            add(loop.update, writes);
+            add(loop.body, writes);
+        } else if (stmt instanceof Stmt.CountedLoop){
+            add(((Stmt.CountedLoop) stmt).loop, writes);
+        } else if (stmt instanceof Stmt.While){
+            add(((Stmt.While) stmt).condition, writes);
+            add(((Stmt.While) stmt).body, writes);
+        } else if (stmt instanceof Stmt.DoWhile){
+            add(((Stmt.DoWhile) stmt).condition, writes);
+            add(((Stmt.DoWhile) stmt).body, writes);
+        } else if (stmt instanceof Stmt.Input){
+            for (Expr.Variable var : ((Stmt.Input) stmt).variables){
+                writes.add(var.declaration);
+            }
+        }
+    }
+
+    private static void add(Expr expr, Set<Stmt.Var> writes){
+        if (expr == null) return;
+
+        if (expr instanceof Expr.Assign){
+            writes.add(((Expr.Assign) expr).declaration);
+            add(((Expr.Assign) expr).value, writes);
+        } else if (expr instanceof Expr.IncrementOrDecrement){
+            writes.add(((Expr.IncrementOrDecrement) expr).var.declaration);
+        } else if (expr instanceof Expr.Binary){
+            add(((Expr.Binary) expr).left, writes);
+            add(((Expr.Binary) expr).right, writes);
+        } else if (expr instanceof Expr.Logical){
+            add(((Expr.Logical) expr).left, writes);
+            add(((Expr.Logical) expr).right, writes);
+        } else if (expr instanceof Expr.Grouping){
+            add(((Expr.Grouping) expr).expression, writes);
+        } else if (expr instanceof Expr.Unary){
+            add(((Expr.Unary) expr).right, writes);
+        } else if (expr instanceof Expr.Convert){
+            add(((Expr.Convert) expr).expression, writes);
+        }
+    }
+}
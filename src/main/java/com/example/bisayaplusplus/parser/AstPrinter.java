@@ -1,12 +1,36 @@
+/* AST PRINTER
+ * Prints expressions as nested lists, for error messages, and whole
+ * programs one statement per line with the statements inside a statement
+ * indented under it, to see what the optimization passes made of a program.
+ */
+
 package com.example.bisayaplusplus.parser;
 
+import com.example.bisayaplusplus.lexer.TokenType;
+import java.util.List;
 import java.util.Objects;
 
-public class AstPrinter implements Expr.Visitor<String>{
+public class AstPrinter implements Expr.Visitor<String>, Stmt.Visitor<String>{
+    private int indent;
+    private boolean quoteText;          // text literals in quotes, so a program with "\n" stays one statement per line
+
     public String print(Expr expr){
         return expr.accept(this);
     }
 
+    public String print(Stmt stmt){
+        quoteText = true;
+        return stmt.accept(this);
+    }
+
+    public String print(List<Stmt> statements){
+        StringBuilder builder = new StringBuilder();
+        for (Stmt stmt : statements){
+            builder.append(print(stmt));
+        }
+        return builder.toString();
+    }
+
     @Override
     public String visitAssignExpr(Expr.Assign expr) {
         return parenthesize("ASSIGN " + expr.name.getLiteral() + " with ", expr.value);
@@ -25,6 +49,12 @@ public class AstPrinter implements Expr.Visitor<String>{
     @Override
     public String visitLiteralExpr(Expr.Literal expr) {
         if (expr.value == null ) return null;
+        if (quoteText && expr.value instanceof String){
+            return "\"" + ((String) expr.value).replace("\n", "\\n") + "\"";
+        }
+        if (quoteText && expr.value instanceof Character){
+            return "'" + ((Character) expr.value == '\n' ? "\\n" : expr.value) + "'";
+        }
         return expr.value.toString();
     }
 
@@ -45,7 +75,120 @@ public class AstPrinter implements Expr.Visitor<String>{
 
     @Override
     public String visitIncrementOrDecrementExpr(Expr.IncrementOrDecrement expr) {
-        return null;
+        String operator = (expr.operator.getTokenType() == TokenType.INCREMENT) ? "++" : "--";
+        return "(" + (expr.isPrefix ? operator + " " + expr.var.name.getLiteral() : expr.var.name.getLiteral() + " " + operator) + ")";
+    }
+
+    @Override
+    public String visitConvertExpr(Expr.Convert expr) {
+        return parenthesize(expr.conversion.toString(), expr.expression);
+    }
+
+    // PRINTING STATEMENTS
+    @Override
+    public String visitBlockStmt(Stmt.Block stmt) {
+        return line("PUNDOK") + nested(stmt.statements);
+    }
+
+    @Override
+    public String visitExpressionStmt(Stmt.Expression stmt) {
+        return line(print(stmt.expression));
+    }
+
+    @Override
+    public String visitIfStmt(Stmt.If stmt) {
+        StringBuilder builder = new StringBuilder(line("KUNG " + print(stmt.condition)));
+        builder.append(nested(stmt.thenBranch));
+        if (stmt.elseIfBranch != null){
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                builder.append(print(elif));
+            }
+        }
+        if (stmt.elseBranch != null){
+            builder.append(line("KUNG WALA")).append(nested(stmt.elseBranch));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String visitElseIfStmt(Stmt.ElseIf stmt) {
+        return line("KUNG DILI " + print(stmt.condition)) + nested(stmt.thenBranch);
+    }
+
+    @Override
+    public String visitSwitchStmt(Stmt.Switch stmt) {
+        StringBuilder builder = new StringBuilder(line("SWITCH " + print(stmt.subject)));
+        indent++;
+        for (int i = 0; i < stmt.branches.size(); i++){
+            builder.append(line("CASE " + stmt.table.keys[i])).append(nested(stmt.branches.get(i)));
+        }
+        if (stmt.defaultBranch != null){
+            builder.append(line("DEFAULT")).append(nested(stmt.defaultBranch));
+        }
+        indent--;
+        return builder.toString();
+    }
+
+    @Override
+    public String visitPrintStmt(Stmt.Print stmt) {
+        return line("IPAKITA " + print(stmt.expression));
+    }
+
+    @Override
+    public String visitForLoopStmt(Stmt.ForLoop stmt) {
+        String initialization = print(stmt.initialization).trim();
+        String update = print(stmt.update).trim();
+        return line("ALANG SA " + initialization + ", " + print(stmt.condition) + ", " + update) + nested(stmt.body);
+    }
+
+    @Override
+    public String visitCountedLoopStmt(Stmt.CountedLoop stmt) {
+        String step = (stmt.step > 0) ? "+" + stmt.step : String.valueOf(stmt.step);
+        String bound = (stmt.inclusive ? "through " : "until ") + print(stmt.limit);
+        return line("COUNTED " + print(stmt.counter) + " " + step + " " + bound) + nested(stmt.loop);
+    }
+
+    @Override
+    public String visitWhileStmt(Stmt.While stmt) {
+        return line("MINTRAS " + print(stmt.condition)) + nested(stmt.body);
+    }
+
+    @Override
+    public String visitDoWhileStmt(Stmt.DoWhile stmt) {
+        return line("BUHATA") + nested(stmt.body) + line("MINTRAS " + print(stmt.condition));
+    }
+
+    @Override
+    public String visitVarStmt(Stmt.Var stmt) {
+        String declaration = "MUGNA " + DataType.of(stmt.dataType).bisayaName + " " + stmt.name.getLiteral();
+        return line(stmt.initializer == null ? declaration : declaration + " = " + print(stmt.initializer));
+    }
+
+    @Override
+    public String visitInputStmt(Stmt.Input stmt) {
+        StringBuilder builder = new StringBuilder("DAWAT");
+        for (Expr.Variable var : stmt.variables){
+            builder.append(" ").append(print(var));
+        }
+        return line(builder.toString());
+    }
+
+    private String line(String text){
+        return "  ".repeat(indent) + text + "\n";
+    }
+
+    private String nested(Stmt stmt){
+        indent++;
+        String text = print(stmt);
+        indent--;
+        return text;
+    }
+
+    private String nested(List<Stmt> statements){
+        indent++;
+        String text = print(statements);
+        indent--;
+        return text;
     }
 
     private String parenthesize(String name, Expr... exprs){
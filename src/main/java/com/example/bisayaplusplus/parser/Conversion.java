@@ -0,0 +1,19 @@
+/* CONVERSION
+ * The implicit conversions the TypeChecker inserts into the tree as
+ * Expr.Convert nodes, each with the data type it produces.
+ */
+
+package com.example.bisayaplusplus.parser;
+
+public enum Conversion {
+    TO_INTEGER(DataType.NUMERO),    // TIPIK -> NUMERO, truncates
+    TO_DOUBLE(DataType.TIPIK),      // NUMERO -> TIPIK
+    TO_BOOLEAN(DataType.TINUOD),    // any value used as a condition
+    TO_STRING(DataType.PULONG);     // any value printed or concatenated, TINUOD becomes "OO"/"DILI"
+
+    public final DataType dataType;
+
+    Conversion(DataType dataType){
+        this.dataType = dataType;
+    }
+}
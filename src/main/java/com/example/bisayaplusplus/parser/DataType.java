@@ -0,0 +1,39 @@
+/* DATA TYPE
+ * The static data types of Bisaya++ values, as computed by the TypeChecker.
+ *
+ * The parser names types by the Java class of their values ("Integer" for
+ * NUMERO), which is kept in Stmt.Var and Expr.Literal. At run time NUMERO,
+ * TIPIK, LETRA and TINUOD are primitives (int, double, char, boolean);
+ * only text is an object.
+ */
+
+package com.example.bisayaplusplus.parser;
+
+public enum DataType {
+    NUMERO("Integer", "NUMERO"),
+    TIPIK("Double", "TIPIK"),
+    LETRA("Character", "LETRA"),
+    TINUOD("Boolean", "TINUOD"),
+    PULONG("String", "PULONG"),     // text: string literals and the result of '&'
+    NULL("null", "null");           // the 'null' literal
+
+    public final String className;
+    public final String bisayaName;
+
+    DataType(String className, String bisayaName){
+        this.className = className;
+        this.bisayaName = bisayaName;
+    }
+
+    public boolean isNumber(){
+        return this == NUMERO || this == TIPIK;
+    }
+
+    // the data type for the class name the parser uses
+    public static DataType of(String className){
+        for (DataType type : values()){
+            if (type.className.equals(className)) return type;
+        }
+        throw new IllegalArgumentException("Unknown data type " + className);
+    }
+}
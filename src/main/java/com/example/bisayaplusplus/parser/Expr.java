@@ -14,11 +14,18 @@ public abstract class Expr {
         R visitUnaryExpr(Unary expr);
         R visitVariableExpr(Variable expr);
         R visitIncrementOrDecrementExpr(IncrementOrDecrement expr);
+        R visitConvertExpr(Convert expr);
     }
+    // data type of the value, set by the TypeChecker
+    public DataType type;
     public static class Assign extends Expr{
 
         public final Token name;
         public final Expr value;
+        // set by the Resolver
+        public int depth;
+        public int slot;
+        public Stmt.Var declaration;
         public Assign (Token name, Expr value){
             this.name = name;
             this.value = value;
@@ -104,6 +111,10 @@ public abstract class Expr {
     public static class Variable extends Expr{
 
         public final Token name;
+        // set by the Resolver
+        public int depth;
+        public int slot;
+        public Stmt.Var declaration;
         public Variable (Token name){
             this.name = name;
         }
@@ -129,6 +140,20 @@ public abstract class Expr {
             return visitor.visitIncrementOrDecrementExpr(this);
         }
     }
+    public static class Convert extends Expr{
+
+        public final Conversion conversion;
+        public final Expr expression;
+        public Convert (Conversion conversion, Expr expression){
+            this.conversion = conversion;
+            this.expression = expression;
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitConvertExpr(this);
+        }
+    }
 
     public abstract <R> R accept(Visitor<R> visitor);
 }
@@ -57,9 +57,9 @@ public class Parser {
         while (!matchToken(TokenType.END_STMT) && !isAtEnd()){
             typeStmt = parseStatements(statements); // parse individual statement
 
-            // for NEW_LINE after every statement except IF, FOR loop.
+            // for NEW_LINE after every statement except IF, FOR loop, and WHILE loop.
             // the newline for the exceptions are handled by the block statement parsing
-            if (!typeStmt.equals("IF") && !typeStmt.equals("FOR LOOP")){
+            if (!typeStmt.equals("IF") && !typeStmt.equals("FOR LOOP") && !typeStmt.equals("WHILE LOOP")){
                 expectAndConsumeToken(TokenType.NEW_LINE, "NEW_LINE", typeStmt + " statement. 1 statement per line.", true);
             }
         }
@@ -295,13 +295,13 @@ public class Parser {
     private Stmt parseReadStatement() throws ParserException {
         expectAndConsumeToken(TokenType.COLON, ":", " DAWAT keyword.", false);
 
-        List<Token> variables = new ArrayList<>();
+        List<Expr.Variable> variables = new ArrayList<>();
 
         do {
             Expr var = parsePrimary();
 
             if (var instanceof Expr.Variable){
-                variables.add(((Expr.Variable) var).name);
+                variables.add((Expr.Variable) var);
             } else {
                 throw new ParserException("Expect variable to store input.", getPrevToken().getLine());
             }
@@ -502,7 +502,6 @@ public class Parser {
         if (matchToken(TokenType.LEFT_PAREN)){
             Expr expr = parseExpression();
             expectAndConsumeToken(TokenType.RIGHT_PAREN, ")", " expression.", false);
-            System.out.println("return grouping");
             return new Expr.Grouping(expr);
         }
         if (matchToken(TokenType.CNEW_LINE)) return new Expr.Literal("Character", '\n');
@@ -0,0 +1,36 @@
+/* SCOPE
+ * Describes the variables of one scope (the program, a PUNDOK block or the
+ * head of an ALANG SA loop), as laid out by the Resolver: the lexical depth
+ * of the scope and the name and data type of the variable in every slot.
+ *
+ * The descriptor is shared by every frame created for the scope, so a frame
+ * itself only needs the values. A scope without variables needs no frame.
+ *
+ * A variable declared with an initializer is always assigned before it can be
+ * read, since it is not in scope before its MUGNA. Only the slots declared
+ * without one have to be reset when the scope is entered again.
+ */
+
+package com.example.bisayaplusplus.parser;
+
+public class Scope {
+    public final int depth;
+    public final String[] names;
+    public final DataType[] types;
+    public final int[] uninitialized;
+
+    public Scope(int depth, String[] names, DataType[] types, int[] uninitialized){
+        this.depth = depth;
+        this.names = names;
+        this.types = types;
+        this.uninitialized = uninitialized;
+    }
+
+    public int size(){
+        return names.length;
+    }
+
+    public boolean isEmpty(){
+        return names.length == 0;
+    }
+}
@@ -10,8 +10,10 @@ public abstract class Stmt {
         R visitExpressionStmt(Expression stmt);
         R visitIfStmt(If stmt);
         R visitElseIfStmt(ElseIf stmt);
+        R visitSwitchStmt(Switch stmt);
         R visitPrintStmt(Print stmt);
         R visitForLoopStmt(ForLoop stmt);
+        R visitCountedLoopStmt(CountedLoop stmt);
         R visitWhileStmt(While stmt);
         R visitDoWhileStmt(DoWhile stmt);
         R visitVarStmt(Var stmt);
@@ -20,6 +22,8 @@ public abstract class Stmt {
     public static class Block extends Stmt{
 
         public final List<Stmt> statements;
+        // set by the Resolver
+        public Scope scope;
         public Block (List<Stmt> statements){
             this.statements = statements;
         }
@@ -73,6 +77,24 @@ public abstract class Stmt {
             return visitor.visitElseIfStmt(this);
         }
     }
+    public static class Switch extends Stmt{
+
+        public final Expr subject;
+        public final SwitchTable table;
+        public final List<Stmt> branches;
+        public final Stmt defaultBranch;
+        public Switch (Expr subject, SwitchTable table, List<Stmt> branches, Stmt defaultBranch){
+            this.subject = subject;
+            this.table = table;
+            this.branches = branches;
+            this.defaultBranch = defaultBranch;
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitSwitchStmt(this);
+        }
+    }
     public static class Print extends Stmt{
 
         public final Expr expression;
@@ -91,6 +113,8 @@ public abstract class Stmt {
         public final Expr condition;
         public final Stmt update;
         public final Stmt body;
+        // set by the Resolver
+        public Scope scope;
         public ForLoop (Stmt initialization, Expr condition, Stmt update, Stmt body){
             this.initialization = initialization;
             this.condition = condition;
@@ -103,6 +127,26 @@ public abstract class Stmt {
             return visitor.visitForLoopStmt(this);
         }
     }
+    public static class CountedLoop extends Stmt{
+
+        public final ForLoop loop;
+        public final Expr.Variable counter;
+        public final Expr limit;
+        public final int step;
+        public final boolean inclusive;
+        public CountedLoop (ForLoop loop, Expr.Variable counter, Expr limit, int step, boolean inclusive){
+            this.loop = loop;
+            this.counter = counter;
+            this.limit = limit;
+            this.step = step;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitCountedLoopStmt(this);
+        }
+    }
     public static class While extends Stmt{
 
         public final Expr condition;
@@ -136,6 +180,9 @@ public abstract class Stmt {
         public final String dataType;
         public final Token name;
         public final Expr initializer;
+        // set by the Resolver
+        public int depth;
+        public int slot;
         public Var (String dataType, Token name, Expr initializer){
             this.dataType = dataType;
             this.name = name;
@@ -149,8 +196,8 @@ public abstract class Stmt {
     }
     public static class Input extends Stmt{
 
-        public final List<Token> variables;
-        public Input (List<Token> variables){
+        public final List<Expr.Variable> variables;
+        public Input (List<Expr.Variable> variables){
             this.variables = variables;
         }
 
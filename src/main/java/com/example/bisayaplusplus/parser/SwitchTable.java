@@ -0,0 +1,90 @@
+/* SWITCH TABLE
+ * The dispatch table of a Stmt.Switch: which branch each NUMERO or LETRA key
+ * selects. Keys close together are looked up in a dense array indexed by
+ * key - min; spread out keys in a small open-addressing hash table. Either
+ * way a lookup takes the same time however many branches there are.
+ *
+ * The keys are distinct and in the order of the branches they select.
+ */
+
+package com.example.bisayaplusplus.parser;
+
+public class SwitchTable {
+    public final int[] keys;
+
+    private final int min;
+    private final int[] dense;          // branch + 1 for key - min, 0 for none. null if the keys are spread out
+
+    private final int[] hashKeys;
+    private final int[] hashBranches;   // branch + 1, 0 for an empty slot
+    private final int shift;
+
+    public SwitchTable(int[] keys){
+        this.keys = keys;
+
+        int lowest = Integer.MAX_VALUE, highest = Integer.MIN_VALUE;
+        for (int key : keys){
+            lowest = Math.min(lowest, key);
+            highest = Math.max(highest, key);
+        }
+        min = lowest;
+
+        // dense if at least a quarter of the array is used
+        long range = (long) highest - lowest + 1;
+        if (range <= 4L * keys.length){
+            dense = new int[(int) range];
+            for (int i = 0; i < keys.length; i++){
+                dense[keys[i] - min] = i + 1;
+            }
+            hashKeys = hashBranches = null;
+            shift = 0;
+            return;
+        }
+
+        dense = null;
+        int bits = 32 - Integer.numberOfLeadingZeros(keys.length * 2 - 1);
+        hashKeys = new int[1 << bits];
+        hashBranches = new int[1 << bits];
+        shift = 32 - bits;
+
+        for (int i = 0; i < keys.length; i++){
+            int slot = hash(keys[i]);
+            while (hashBranches[slot] != 0){
+                slot = (slot + 1) & (hashKeys.length - 1);
+            }
+            hashKeys[slot] = keys[i];
+            hashBranches[slot] = i + 1;
+        }
+    }
+
+    public boolean isDense(){
+        return dense != null;
+    }
+
+    public int min(){
+        return min;
+    }
+
+    public int max(){
+        return min + dense.length - 1;
+    }
+
+    // the branch the key selects, -1 for none
+    public int indexOf(int key){
+        if (dense != null){
+            int offset = key - min;
+            return (offset >= 0 && offset < dense.length) ? dense[offset] - 1 : -1;
+        }
+
+        int slot = hash(key);
+        while (hashBranches[slot] != 0){
+            if (hashKeys[slot] == key) return hashBranches[slot] - 1;
+            slot = (slot + 1) & (hashKeys.length - 1);
+        }
+        return -1;
+    }
+
+    private int hash(int key){
+        return (key * 0x9E3779B9) >>> shift;
+    }
+}
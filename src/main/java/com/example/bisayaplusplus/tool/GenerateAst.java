@@ -15,34 +15,40 @@ public class GenerateAst {
         }
 
         String outputDir = args[0];
+        // fields after '|' are not set by the parser but filled in later by the Resolver
         defineAst(outputDir, "Expr", Arrays.asList(
-                "Assign    : Token name, Expr value",
+                "Assign    : Token name, Expr value | int depth, int slot, Stmt.Var declaration",
                 "Binary    : Expr left, Token operator, Expr right",
                 "Grouping  : Expr expression",
                 "Literal   : String dataType, Object value",
                 "Logical   : Expr left, Token operator, Expr right",
                 "Unary     : Token operator, Expr right",
-                "Variable  : Token name",
-                "IncrementOrDecrement : Token operator, Variable var, boolean isPrefix"
-        ));
+                "Variable  : Token name | int depth, int slot, Stmt.Var declaration",
+                "IncrementOrDecrement : Token operator, Variable var, boolean isPrefix",
+                "Convert   : Conversion conversion, Expr expression"
+        ), "DataType type");
 
         defineAst(outputDir, "Stmt", Arrays.asList(
-           "Block      : List<Stmt> statements",
+           "Block      : List<Stmt> statements | Scope scope",
            "Expression : Expr expression",
            "If         : Expr condition, Stmt thenBranch, List<ElseIf> elseIfBranch, Stmt elseBranch",
            "ElseIf     : Expr condition, Stmt thenBranch",
+           // made by the optimizer from KUNG chains that compare one variable to constants
+           "Switch     : Expr subject, SwitchTable table, List<Stmt> branches, Stmt defaultBranch",
            "Print      : Expr expression",
            // for loop that allows multiple initializations
 //           "ForLoop    : List<Stmt> initialization, Expr condition, Expr update, Stmt body",
-           "ForLoop    : Stmt initialization, Expr condition, Stmt update, Stmt body",
+           "ForLoop    : Stmt initialization, Expr condition, Stmt update, Stmt body | Scope scope",
+           // made by the optimizer from ALANG SA loops that count a NUMERO from one bound to another
+           "CountedLoop : ForLoop loop, Expr.Variable counter, Expr limit, int step, boolean inclusive",
            "While      : Expr condition, Stmt body",
            "DoWhile    : Expr condition, Stmt body",
-           "Var        : String dataType, Token name, Expr initializer",
-           "Input      : List<Token> variables"
-        ));
+           "Var        : String dataType, Token name, Expr initializer | int depth, int slot",
+           "Input      : List<Expr.Variable> variables"
+        ), null);
     }
 
-    private static void defineAst(String outputDir, String baseName, List<String> types) throws FileNotFoundException, UnsupportedEncodingException {
+    private static void defineAst(String outputDir, String baseName, List<String> types, String baseField) throws FileNotFoundException, UnsupportedEncodingException {
         String path = outputDir + "/" + baseName + ".java";
         PrintWriter writer = new PrintWriter(path, "UTF-8");
 
@@ -55,11 +61,16 @@ public class GenerateAst {
 
         defineVisitor(writer, baseName, types);
 
+        if (baseField != null){
+            writer.println("  // data type of the value, set by the TypeChecker");
+            writer.println("  public " + baseField + ";");
+        }
+
         for (String type: types){
             String className = type.split(":")[0].trim();
-            String fields = type.split(":")[1].trim();
+            String[] fields = type.split(":")[1].split("\\|");
 
-            defineType(writer, baseName, className, fields);
+            defineType(writer, baseName, className, fields[0].trim(), fields.length > 1 ? fields[1].trim() : null);
         }
 
         // The base accept() method.
@@ -70,7 +81,7 @@ public class GenerateAst {
         writer.close();
     }
 
-    private static void defineType(PrintWriter writer, String baseName, String className, String fieldList){
+    private static void defineType(PrintWriter writer, String baseName, String className, String fieldList, String resolvedFieldList){
         writer.println(" public static class " + className + " extends " + baseName + "{");
         // store parameters infields
         String[] fields = fieldList.split(", ");
@@ -81,6 +92,13 @@ public class GenerateAst {
             writer.println("    public final " + field + ";");
         }
 
+        if (resolvedFieldList != null){
+            writer.println("    // set by the Resolver");
+            for (String field : resolvedFieldList.split(", ")) {
+                writer.println("    public " + field + ";");
+            }
+        }
+
         // constructor
         writer.println("    public " + className + " (" + fieldList + "){");
 
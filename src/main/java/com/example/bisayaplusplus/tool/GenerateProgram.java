@@ -0,0 +1,298 @@
+/* GENERATE PROGRAM
+ * Generates large, valid Bisaya++ programs for benchmarks and scaling tests.
+ *
+ * The output is deterministic for a given seed and set of size parameters:
+ *   lines          - number of random statements (assignments, prints, KUNG)
+ *   depth          - how deep the nested KUNG/PUNDOK block goes
+ *   variables      - how many extra variables are declared with MUGNA
+ *   concatOperands - number of '&' operands in one long IPAKITA
+ *   loopIterations - iterations of a tight ALANG SA loop
+ * A parameter of 0 leaves that part out.
+ *
+ * Generated programs follow bnf.txt and run without errors: every variable
+ * is initialized when it is declared, NUMERO values are kept small with
+ * '% 1000' so they never overflow, and nothing is divided by zero. Very
+ * large sizes can still hit limits of the implementation itself (e.g. the
+ * recursion depth for thousands of '&' operands), which is what the scaling
+ * benchmarks are meant to find.
+ *
+ * Usage: generate_program <output file> [--seed=N] [--lines=N] [--depth=N]
+ *        [--variables=N] [--concat=N] [--loop=N]
+ */
+
+package com.example.bisayaplusplus.tool;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class GenerateProgram {
+    // base variables that are always declared and used by the generated expressions
+    private static final int BASE_NUMBERS = 4;
+    private static final int BASE_DOUBLES = 2;
+    private static final int VARIABLES_PER_MUGNA = 8;
+
+    private final Random random;
+    private final List<String> numbers = new ArrayList<>();
+    private final List<String> doubles = new ArrayList<>();
+    private final List<String> letters = new ArrayList<>();
+    private final List<String> booleans = new ArrayList<>();
+    private StringBuilder out;
+
+    public GenerateProgram(long seed){
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws FileNotFoundException, UnsupportedEncodingException {
+        String output = null;
+        long seed = 42;
+        int lines = 1000, depth = 0, variables = 0, concatOperands = 0, loopIterations = 0;
+
+        for (String arg : args){
+            if (arg.startsWith("--seed=")) seed = Long.parseLong(value(arg));
+            else if (arg.startsWith("--lines=")) lines = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--depth=")) depth = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--variables=")) variables = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--concat=")) concatOperands = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--loop=")) loopIterations = Integer.parseInt(value(arg));
+            else if (output == null && !arg.startsWith("--")) output = arg;
+            else {
+                output = null;
+                break;
+            }
+        }
+
+        if (output == null){
+            System.err.println("Usage: generate_program <output file> [--seed=N] [--lines=N] [--depth=N] [--variables=N] [--concat=N] [--loop=N]");
+            System.exit(64);
+        }
+
+        try (PrintWriter writer = new PrintWriter(output, "UTF-8")){
+            writer.print(new GenerateProgram(seed).generate(lines, depth, variables, concatOperands, loopIterations));
+        }
+    }
+
+    /*
+     * Generates one program with all the requested parts, in this order:
+     * declarations, random statements, the nested block, the long IPAKITA
+     * and the loop.
+     */
+    public String generate(int lines, int depth, int variables, int concatOperands, int loopIterations){
+        out = new StringBuilder(64 + lines * 24 + depth * 40 + variables * 8 + concatOperands * 6);
+        numbers.clear();
+        doubles.clear();
+        letters.clear();
+        booleans.clear();
+
+        out.append("SUGOD\n");
+        declareVariables(variables);
+
+        for (int i = 0; i < lines; i++){
+            statement(1);
+        }
+
+        if (depth > 0) appendNestedBlocks(depth);
+        if (concatOperands > 0) appendConcatChain(concatOperands);
+        if (loopIterations > 0) appendCountedLoop(loopIterations);
+
+        out.append("KATAPUSAN\n");
+        return out.toString();
+    }
+
+    // a long straight-line program, e.g. 100_000 lines
+    public String straightLine(int lines){
+        return generate(lines, 0, 0, 0, 0);
+    }
+
+    // KUNG/PUNDOK blocks nested the given number of levels deep
+    public String nestedBlocks(int depth){
+        return generate(0, depth, 0, 0, 0);
+    }
+
+    // thousands of MUGNA declarations
+    public String manyVariables(int variables){
+        return generate(0, 0, variables, 0, 0);
+    }
+
+    // one IPAKITA with the given number of '&' operands
+    public String concatChain(int operands){
+        return generate(0, 0, 0, operands, 0);
+    }
+
+    // a tight ALANG SA loop, e.g. 100_000_000 iterations
+    public String countedLoop(int iterations){
+        return generate(0, 0, 0, 0, iterations);
+    }
+
+    //---------- parts of the program ----------------
+
+    private void declareVariables(int extra){
+        int total = BASE_NUMBERS + BASE_DOUBLES + 2 + extra;
+
+        // extra variables are spread over the data types, mostly NUMERO
+        for (int i = 0; i < total; i++){
+            if (i < BASE_NUMBERS) numbers.add("n" + numbers.size());
+            else if (i < BASE_NUMBERS + BASE_DOUBLES) doubles.add("t" + doubles.size());
+            else if (i == BASE_NUMBERS + BASE_DOUBLES) letters.add("c" + letters.size());
+            else if (i == BASE_NUMBERS + BASE_DOUBLES + 1) booleans.add("b" + booleans.size());
+            else {
+                switch (random.nextInt(8)){
+                    case 0 -> doubles.add("t" + doubles.size());
+                    case 1 -> letters.add("c" + letters.size());
+                    case 2 -> booleans.add("b" + booleans.size());
+                    default -> numbers.add("n" + numbers.size());
+                }
+            }
+        }
+
+        declare("NUMERO", numbers, () -> String.valueOf(random.nextInt(100)));
+        declare("TIPIK", doubles, () -> random.nextInt(100) + "." + random.nextInt(10));
+        declare("LETRA", letters, this::charLiteral);
+        declare("TINUOD", booleans, () -> random.nextBoolean() ? "\"OO\"" : "\"DILI\"");
+    }
+
+    private void declare(String dataType, List<String> names, Supplier<String> initializer){
+        for (int i = 0; i < names.size(); i += VARIABLES_PER_MUGNA){
+            out.append("\tMUGNA ").append(dataType).append(' ');
+            for (int j = i; j < Math.min(i + VARIABLES_PER_MUGNA, names.size()); j++){
+                if (j > i) out.append(", ");
+                out.append(names.get(j)).append(" = ").append(initializer.get());
+            }
+            out.append('\n');
+        }
+    }
+
+    // one random statement at the given indentation
+    private void statement(int indent){
+        int kind = random.nextInt(10);
+
+        if (kind < 4){
+            indent(indent).append(pick(numbers)).append(" = ").append(numberExpr()).append('\n');
+        } else if (kind < 5){
+            indent(indent).append(pick(doubles)).append(" = ").append(doubleExpr()).append('\n');
+        } else if (kind < 6){
+            indent(indent).append(pick(booleans)).append(" = ").append(condition()).append('\n');
+        } else if (kind < 7){
+            indent(indent).append(pick(letters)).append(" = ").append(random.nextBoolean() ? charLiteral() : pick(letters)).append('\n');
+        } else if (kind < 8){
+            indent(indent).append("IPAKITA: ").append(pick(numbers)).append(" & \" \" & ").append(pick(doubles)).append(" & $\n");
+        } else {
+            ifStatement(indent);
+        }
+    }
+
+    private void ifStatement(int indent){
+        indent(indent).append("KUNG (").append(condition()).append(")\n");
+        block(indent, () -> indent(indent + 1).append(pick(numbers)).append(" = ").append(numberExpr()).append('\n'));
+
+        if (random.nextBoolean()){
+            indent(indent).append("KUNG DILI (").append(condition()).append(")\n");
+            block(indent, () -> indent(indent + 1).append("IPAKITA: ").append(pick(letters)).append('\n'));
+        }
+
+        indent(indent).append("KUNG WALA\n");
+        block(indent, () -> indent(indent + 1).append(pick(numbers)).append("++\n"));
+    }
+
+    private void appendNestedBlocks(int depth){
+        for (int level = 0; level < depth; level++){
+            indent(level + 1).append("KUNG (").append(pick(numbers)).append(" < 1000)\n");
+            indent(level + 1).append("PUNDOK{\n");
+        }
+
+        indent(depth + 1).append("IPAKITA: \"depth ").append(depth).append("\" & $\n");
+
+        for (int level = depth - 1; level >= 0; level--){
+            indent(level + 1).append("}\n");
+        }
+    }
+
+    private void appendConcatChain(int operands){
+        out.append("\tIPAKITA: ");
+        for (int i = 0; i < operands; i++){
+            if (i > 0) out.append(" & ");
+            switch (random.nextInt(5)){
+                case 0 -> out.append(pick(numbers));
+                case 1 -> out.append(pick(letters));
+                case 2 -> out.append("\"s").append(i).append('"');
+                case 3 -> out.append("[#]");
+                default -> out.append('$');
+            }
+        }
+        out.append('\n');
+    }
+
+    private void appendCountedLoop(int iterations){
+        String counter = pick(numbers);
+        out.append("\tALANG SA (MUGNA NUMERO i = 0, i < ").append(iterations).append(", i++)\n");
+        out.append("\tPUNDOK{\n");
+        out.append("\t\t").append(counter).append(" = (").append(counter).append(" + i % 7) % 1000\n");
+        out.append("\t}\n");
+        out.append("\tIPAKITA: ").append(counter).append(" & $\n");
+    }
+
+    private void block(int indent, Runnable body){
+        indent(indent).append("PUNDOK{\n");
+        body.run();
+        indent(indent).append("}\n");
+    }
+
+    //---------- expressions ----------------
+
+    /*
+     * NUMERO expression whose value stays within (-1000, 1000).
+     * Operands are at most 1000 in size, so products can't overflow, and
+     * a '-' or '+' never directly follows ')' since the lexer would read it
+     * as a unary sign there.
+     */
+    private String numberExpr(){
+        return switch (random.nextInt(4)) {
+            case 0 -> "(" + pick(numbers) + " * " + pick(numbers) + " + " + random.nextInt(50) + ") % 1000";
+            case 1 -> "(" + pick(numbers) + " - " + pick(numbers) + " * " + (1 + random.nextInt(9)) + ") % 1000";
+            case 2 -> "(" + pick(numbers) + " + " + pick(numbers) + ") / " + (1 + random.nextInt(9));
+            default -> pick(numbers) + " % " + (1 + random.nextInt(97));
+        };
+    }
+
+    // TIPIK expression whose value stays within (-1000, 1000)
+    private String doubleExpr(){
+        return switch (random.nextInt(3)) {
+            case 0 -> "(" + pick(doubles) + " * 0.5 + " + pick(numbers) + ") % 1000.0";
+            case 1 -> "(" + pick(doubles) + " + " + pick(doubles) + ") / 2.0";
+            default -> pick(numbers) + " / " + (1 + random.nextInt(9)) + ".5";
+        };
+    }
+
+    private String condition(){
+        String[] comparisons = { " < ", " > ", " <= ", " >= ", " == ", " <> " };
+        String comparison = pick(numbers) + comparisons[random.nextInt(comparisons.length)] + random.nextInt(1000);
+
+        return switch (random.nextInt(4)) {
+            case 0 -> comparison + " UG " + pick(numbers) + " <> 0";
+            case 1 -> comparison + " O " + pick(doubles) + " > 0.5";
+            case 2 -> "DILI (" + comparison + ")";
+            default -> comparison;
+        };
+    }
+
+    private String charLiteral(){
+        return "'" + (char) ('a' + random.nextInt(26)) + "'";
+    }
+
+    private String pick(List<String> names){
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private StringBuilder indent(int level){
+        for (int i = 0; i < level; i++) out.append('\t');
+        return out;
+    }
+
+    private static String value(String arg){
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+}
@@ -0,0 +1,628 @@
+/* BYTECODE COMPILER
+ * This class compiles an analyzed Program into a Chunk of register-based
+ * bytecode for the VirtualMachine.
+ *
+ * Every variable gets a register of its own for as long as its scope lasts.
+ * Registers are handed out like a stack: a scope's variables take the next
+ * free registers when they are declared and give them back at the end of
+ * the scope, so sibling scopes share registers. The temporaries of an
+ * expression are taken above the variables and given back as soon as the
+ * value has been used.
+ *
+ * An operand that is just a variable is read from the variable's register
+ * without a copy, unless an operand evaluated after it could assign that
+ * variable first. Reading a variable that might not be assigned yet is
+ * guarded by a CHECK; a variable declared with an initializer can only be
+ * unassigned again through DAWAT into a LETRA, so most reads need none.
+ *
+ * The order of evaluation is the Interpreter's: left to right, with UG and O
+ * skipping their right operand once the left one decides. The conditions of
+ * KUNG and the loops are compiled into jumps instead of a TINUOD (see
+ * jumpIf), so a NUMERO comparison there is a single compare-and-jump.
+ */
+
+package com.example.bisayaplusplus.vm;
+
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.lexer.Token;
+import com.example.bisayaplusplus.lexer.TokenType;
+import com.example.bisayaplusplus.parser.DataType;
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.Stmt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.bisayaplusplus.vm.Opcode.*;
+
+public class BytecodeCompiler {
+    private int[] code = new int[256];
+    private int size = 0;
+
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private int[] linePcs = new int[64];
+    private int[] lines = new int[64];
+    private int lineCount = 0;
+    private int line = 0;
+
+    private final Map<Stmt.Var, Integer> registers = new IdentityHashMap<>();
+    private int top = 0;            // the next free register
+    private int locals = 0;         // registers below this one hold variables
+    private int maxRegisters = 0;
+
+    private BytecodeCompiler(){}
+
+    public static Chunk compile(Program program){
+        BytecodeCompiler compiler = new BytecodeCompiler();
+
+        for (Stmt stmt : program.statements){
+            compiler.statement(stmt);
+        }
+        compiler.emit(HALT);
+
+        return compiler.chunk();
+    }
+
+    private Chunk chunk(){
+        return new Chunk(Arrays.copyOf(code, size), constants.toArray(),
+                Arrays.copyOf(linePcs, lineCount), Arrays.copyOf(lines, lineCount), maxRegisters);
+    }
+
+    // EMITTING CODE
+    private int emit(int... words){
+        if (lineCount == 0 || lines[lineCount - 1] != line){
+            if (lineCount == linePcs.length){
+                linePcs = Arrays.copyOf(linePcs, lineCount * 2);
+                lines = Arrays.copyOf(lines, lineCount * 2);
+            }
+            linePcs[lineCount] = size;
+            lines[lineCount++] = line;
+        }
+
+        if (size + words.length > code.length){
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+        }
+
+        int pc = size;
+        System.arraycopy(words, 0, code, size, words.length);
+        size += words.length;
+        return pc;
+    }
+
+    // the jump target operand is the last word of the jump
+    private void patch(int jump, int target){
+        code[jump + Opcode.length(code[jump]) - 1] = target;
+    }
+
+    private void patch(List<Integer> jumps, int target){
+        for (int jump : jumps){
+            patch(jump, target);
+        }
+    }
+
+    private void at(Token token){
+        line = token.getLine();
+    }
+
+    private int constant(String value){
+        Integer index = strings.get(value);
+        if (index == null){
+            index = addConstant(value);
+            strings.put(value, index);
+        }
+        return index;
+    }
+
+    private int addConstant(Object value){
+        constants.add(value);
+        return constants.size() - 1;
+    }
+
+    private int temp(){
+        int register = top++;
+        if (top > maxRegisters) maxRegisters = top;
+        return register;
+    }
+
+    // COMPILING STATEMENTS
+    private void statement(Stmt stmt){
+        int savedLocals = locals;
+        locals = top;
+
+        int mark = top;
+
+        if (stmt instanceof Stmt.Expression){
+            expression(((Stmt.Expression) stmt).expression, true);
+            top = mark;
+        } else if (stmt instanceof Stmt.Print){
+            emit(PRINT, expression(((Stmt.Print) stmt).expression, true));
+            top = mark;
+        } else if (stmt instanceof Stmt.Var){
+            varStatement((Stmt.Var) stmt);
+        } else if (stmt instanceof Stmt.Block){
+            for (Stmt statement : ((Stmt.Block) stmt).statements){
+                statement(statement);
+            }
+            top = mark;
+        } else if (stmt instanceof Stmt.If){
+            ifStatement((Stmt.If) stmt);
+        } else if (stmt instanceof Stmt.CountedLoop){
+            // the counter already is a register, and the comparison one instruction
+            statement(((Stmt.CountedLoop) stmt).loop);
+        } else if (stmt instanceof Stmt.ForLoop){
+            Stmt.ForLoop loop = (Stmt.ForLoop) stmt;
+            statement(loop.initialization);
+            locals = top;
+
+            int start = size;
+            List<Integer> exits = jumpIf(loop.condition, false);
+            int poll = emit(POLL, -1);
+            statement(loop.body);
+            statement(loop.update);
+            emit(JUMP, start);
+
+            patch(exits, size);
+            patch(poll, size);
+            top = mark;
+        } else if (stmt instanceof Stmt.While){
+            Stmt.While loop = (Stmt.While) stmt;
+
+            int start = size;
+            List<Integer> exits = jumpIf(loop.condition, false);
+            int poll = emit(POLL, -1);
+            statement(loop.body);
+            emit(JUMP, start);
+
+            patch(exits, size);
+            patch(poll, size);
+        } else if (stmt instanceof Stmt.DoWhile){
+            Stmt.DoWhile loop = (Stmt.DoWhile) stmt;
+
+            int start = size;
+            int poll = emit(POLL, -1);
+            statement(loop.body);
+            patch(jumpIf(loop.condition, true), start);
+
+            patch(poll, size);
+        } else if (stmt instanceof Stmt.Switch){
+            switchStatement((Stmt.Switch) stmt);
+        } else if (stmt instanceof Stmt.Input){
+            List<Expr.Variable> variables = ((Stmt.Input) stmt).variables;
+            int[] targets = new int[variables.size()];
+            for (int i = 0; i < targets.length; i++){
+                targets[i] = registers.get(variables.get(i).declaration);
+            }
+
+            at(variables.get(0).name);
+            emit(READ, addConstant(new Chunk.Input(variables, targets)));
+        } else {
+            throw new IllegalStateException("Unexpected statement " + stmt.getClass().getSimpleName());
+        }
+
+        locals = savedLocals;
+    }
+
+    private void varStatement(Stmt.Var stmt){
+        int register;
+        at(stmt.name);
+
+        if (stmt.initializer == null){
+            register = temp();
+            emit(UNSET, register);
+        } else {
+            int mark = top;
+            int value = expression(stmt.initializer, true);
+            top = mark;
+
+            register = temp();
+            if (value != register) emit(MOVE, register, value);
+        }
+
+        registers.put(stmt, register);
+    }
+
+    private void ifStatement(Stmt.If stmt){
+        List<Integer> exits = new ArrayList<>();
+        boolean hasMore = stmt.elseIfBranch != null || stmt.elseBranch != null;
+
+        List<Integer> next = jumpIf(stmt.condition, false);
+        statement(stmt.thenBranch);
+        if (hasMore) exits.add(emit(JUMP, -1));
+        patch(next, size);
+
+        if (stmt.elseIfBranch != null){
+            for (Stmt.ElseIf elif : stmt.elseIfBranch){
+                next = jumpIf(elif.condition, false);
+                statement(elif.thenBranch);
+                exits.add(emit(JUMP, -1));
+                patch(next, size);
+            }
+        }
+
+        if (stmt.elseBranch != null) statement(stmt.elseBranch);
+
+        patch(exits, size);
+    }
+
+    private void switchStatement(Stmt.Switch stmt){
+        Chunk.Switch dispatch = new Chunk.Switch(stmt.table);
+        List<Integer> exits = new ArrayList<>();
+
+        // LETRA keys are the char's code, in the register like a NUMERO
+        emit(SWITCH, condition(stmt.subject), addConstant(dispatch));
+
+        for (int i = 0; i < stmt.branches.size(); i++){
+            dispatch.targets[i] = size;
+            statement(stmt.branches.get(i));
+            exits.add(emit(JUMP, -1));
+        }
+
+        dispatch.defaultTarget = size;
+        if (stmt.defaultBranch != null) statement(stmt.defaultBranch);
+
+        patch(exits, size);
+    }
+
+    // the register of a value tested by a jump, its temporaries are free again right away
+    private int condition(Expr condition){
+        int mark = top;
+        int register = expression(condition, true);
+        top = mark;
+        return register;
+    }
+
+    /*
+     * Compiles a TINUOD condition into jumps, which are taken if its value is
+     * the given one and still have to be patched; otherwise the code falls
+     * through. DILI only swaps the value jumped on, UG and O jump past their
+     * right operand once the left one decides, and a NUMERO, LETRA or TINUOD
+     * comparison is one instruction. Only what is left is computed into a
+     * TINUOD and tested.
+     */
+    private List<Integer> jumpIf(Expr condition, boolean value){
+        List<Integer> jumps = new ArrayList<>();
+        jumpIf(condition, value, jumps);
+        return jumps;
+    }
+
+    private void jumpIf(Expr condition, boolean value, List<Integer> jumps){
+        while (condition instanceof Expr.Grouping){
+            condition = ((Expr.Grouping) condition).expression;
+        }
+
+        if (condition instanceof Expr.Logical){
+            Expr.Logical logical = (Expr.Logical) condition;
+            TokenType opType = logical.operator.getTokenType();
+
+            if (opType == TokenType.LOGIC_NOT){
+                jumpIf(logical.right, !value, jumps);
+                return;
+            }
+
+            if (opType == TokenType.LOGIC_AND || opType == TokenType.LOGIC_OR){
+                // the value of the left operand that decides: DILI for UG, OO for O
+                boolean decides = opType == TokenType.LOGIC_OR;
+                if (value == decides){
+                    jumpIf(logical.left, value, jumps);
+                    jumpIf(logical.right, value, jumps);
+                } else {
+                    List<Integer> decided = jumpIf(logical.left, decides);
+                    jumpIf(logical.right, value, jumps);
+                    patch(decided, size);
+                }
+                return;
+            }
+
+            if (compareAndJump(logical, value, jumps)) return;
+        }
+
+        jumps.add(emit(value ? JUMP_T : JUMP_F, condition(condition), -1));
+    }
+
+    // a comparison of ints as a single JLT_I .. JNE_I. false for the others, TIPIK and text
+    private boolean compareAndJump(Expr.Logical comparison, boolean value, List<Integer> jumps){
+        TokenType opType = comparison.operator.getTokenType();
+        DataType type = comparison.left.type;
+        boolean isEquality = opType == TokenType.DOUBLE_EQUAL || opType == TokenType.NOT_EQUAL;
+        if (type != DataType.NUMERO && !(isEquality && (type == DataType.LETRA || type == DataType.TINUOD))) return false;
+
+        int mark = top;
+        int left = expression(comparison.left, !hasSideEffects(comparison.right));
+        int right = expression(comparison.right, true);
+        top = mark;
+        at(comparison.operator);
+
+        // for ints, a comparison that doesn't hold is the opposite one that does
+        int op;
+        switch (opType){
+            case LESSER_THAN: op = value ? JLT_I : JGE_I; break;
+            case LESSER_OR_EQUAL: op = value ? JLE_I : JGT_I; break;
+            case GREATER_THAN: op = value ? JGT_I : JLE_I; break;
+            case GREATER_OR_EQUAL: op = value ? JGE_I : JLT_I; break;
+            case NOT_EQUAL: op = value ? JNE_I : JEQ_I; break;
+            default: op = value ? JEQ_I : JNE_I;
+        }
+        jumps.add(emit(op, left, right, -1));
+        return true;
+    }
+
+    // COMPILING EXPRESSIONS
+    /*
+     * Returns the register that holds the value of the expression. If the value
+     * could be a variable's register, it is copied unless mayAlias is set.
+     */
+    private int expression(Expr expr, boolean mayAlias){
+        int register = compile(expr);
+        if (mayAlias || register >= locals) return register;
+
+        int copy = temp();
+        emit(MOVE, copy, register);
+        return copy;
+    }
+
+    private int compile(Expr expr){
+        if (expr instanceof Expr.Literal){
+            return literal((Expr.Literal) expr);
+        }
+
+        if (expr instanceof Expr.Variable){
+            return variable((Expr.Variable) expr);
+        }
+
+        if (expr instanceof Expr.Grouping){
+            return compile(((Expr.Grouping) expr).expression);
+        }
+
+        if (expr instanceof Expr.Binary){
+            Expr.Binary binary = (Expr.Binary) expr;
+            int op;
+
+            switch (binary.operator.getTokenType()){
+                case CONCAT: op = CONCAT; break;
+                case PLUS: op = (expr.type == DataType.PULONG) ? CONCAT : ADD_I; break;
+                case MINUS: op = SUB_I; break;
+                case MULTIPLY: op = MUL_I; break;
+                case DIVIDE: op = DIV_I; break;
+                case MODULO: op = MOD_I; break;
+                default: throw unexpected(expr);
+            }
+            // the TIPIK opcodes come right after the NUMERO ones
+            if (expr.type == DataType.TIPIK) op += ADD_D - ADD_I;
+
+            int mark = top;
+            int left = expression(binary.left, !hasSideEffects(binary.right));
+            int right = expression(binary.right, true);
+            top = mark;
+
+            at(binary.operator);
+            return emitResult(op, left, right);
+        }
+
+        if (expr instanceof Expr.Unary){
+            Expr.Unary unary = (Expr.Unary) expr;
+            if (unary.operator.getTokenType() != TokenType.NEGATIVE) return compile(unary.right);
+
+            int mark = top;
+            int operand = expression(unary.right, true);
+            top = mark;
+
+            at(unary.operator);
+            return emitResult(expr.type == DataType.TIPIK ? NEG_D : NEG_I, operand);
+        }
+
+        if (expr instanceof Expr.Convert){
+            return convert((Expr.Convert) expr);
+        }
+
+        if (expr instanceof Expr.Assign){
+            Expr.Assign assign = (Expr.Assign) expr;
+            int register = registers.get(assign.declaration);
+
+            int mark = top;
+            int value = expression(assign.value, true);
+            top = mark;
+
+            if (value != register) emit(MOVE, register, value);
+            return register;
+        }
+
+        if (expr instanceof Expr.IncrementOrDecrement){
+            return increment((Expr.IncrementOrDecrement) expr);
+        }
+
+        if (expr instanceof Expr.Logical){
+            return logical((Expr.Logical) expr);
+        }
+
+        throw unexpected(expr);
+    }
+
+    private int emitResult(int op, int... operands){
+        int result = temp();
+        int[] words = new int[operands.length + 2];
+        words[0] = op;
+        words[1] = result;
+        System.arraycopy(operands, 0, words, 2, operands.length);
+        emit(words);
+        return result;
+    }
+
+    private int literal(Expr.Literal expr){
+        int register = temp();
+        Object value = expr.value;
+
+        switch (expr.type){
+            case NUMERO: emit(CONST_I, register, (Integer) value); break;
+            case LETRA: emit(CONST_I, register, (Character) value); break;
+            case TINUOD: emit(CONST_I, register, (Boolean) value ? 1 : 0); break;
+            case TIPIK: {
+                long bits = Double.doubleToRawLongBits((Double) value);
+                emit(CONST_D, register, (int) (bits >>> 32), (int) bits);
+                break;
+            }
+            default: emit(CONST_S, register, constant((String) value));
+        }
+
+        return register;
+    }
+
+    private int variable(Expr.Variable var){
+        int register = registers.get(var.declaration);
+
+        if (mightBeUnset(var.declaration)){
+            at(var.name);
+            emit(CHECK, register, constant(var.name.getLiteral().toString()));
+        }
+
+        return register;
+    }
+
+    // a LETRA is left unassigned by DAWAT input that isn't a single character
+    private static boolean mightBeUnset(Stmt.Var declaration){
+        return declaration.initializer == null || DataType.of(declaration.dataType) == DataType.LETRA;
+    }
+
+    private int convert(Expr.Convert expr){
+        DataType from = expr.expression.type;
+        if (from == expr.conversion.dataType) return compile(expr.expression);
+
+        int mark = top;
+        int operand = expression(expr.expression, true);
+        top = mark;
+
+        switch (expr.conversion){
+            case TO_DOUBLE: return emitResult(I2D, operand);
+            case TO_INTEGER: return emitResult(D2I, operand);
+            case TO_BOOLEAN:
+                switch (from){
+                    case NUMERO: return emitResult(I2B, operand);
+                    case TIPIK: return emitResult(D2B, operand);
+                    case LETRA: {
+                        // any LETRA is true, it was only evaluated for its effects
+                        int result = temp();
+                        emit(CONST_I, result, 1);
+                        return result;
+                    }
+                    case TINUOD: return operand;
+                    default: return emitResult(S2B, operand);
+                }
+            default:
+                switch (from){
+                    case NUMERO: return emitResult(I2S, operand);
+                    case TIPIK: return emitResult(D2S, operand);
+                    case LETRA: return emitResult(C2S, operand);
+                    case TINUOD: return emitResult(B2S, operand);
+                    default: return operand;
+                }
+        }
+    }
+
+    private int increment(Expr.IncrementOrDecrement expr){
+        int register = variable(expr.var);
+        int delta = (expr.operator.getTokenType() == TokenType.INCREMENT) ? +1 : -1;
+        int op;
+
+        switch (expr.type){
+            case NUMERO: op = INC_I; break;
+            case TIPIK: op = INC_D; break;
+            case LETRA: op = INC_C; break;
+            default: throw unexpected(expr);
+        }
+
+        at(expr.operator);
+
+        // the prefix form gives the value from before
+        if (expr.isPrefix){
+            int old = temp();
+            emit(MOVE, old, register);
+            emit(op, register, delta);
+            return old;
+        }
+
+        emit(op, register, delta);
+        return register;
+    }
+
+    private int logical(Expr.Logical expr){
+        TokenType opType = expr.operator.getTokenType();
+        int mark = top;
+
+        if (opType == TokenType.LOGIC_NOT){
+            int operand = expression(expr.right, true);
+            top = mark;
+            return emitResult(NOT, operand);
+        }
+
+        if (opType == TokenType.LOGIC_AND || opType == TokenType.LOGIC_OR){
+            // the result is the left operand, unless it doesn't decide and the right one is evaluated
+            int left = expression(expr.left, true);
+            top = mark;
+            int result = temp();
+            if (result != left) emit(MOVE, result, left);
+
+            at(expr.operator);
+            int decided = emit((opType == TokenType.LOGIC_AND) ? JUMP_F : JUMP_T, result, -1);
+            int right = expression(expr.right, true);
+            top = result + 1;
+            if (right != result) emit(MOVE, result, right);
+
+            patch(decided, size);
+            return result;
+        }
+
+        int left = expression(expr.left, !hasSideEffects(expr.right));
+        int right = expression(expr.right, true);
+        top = mark;
+        at(expr.operator);
+
+        boolean equal = opType != TokenType.NOT_EQUAL;
+
+        switch (expr.left.type){
+            case NUMERO:
+            case TIPIK: {
+                int op;
+                switch (opType){
+                    case LESSER_THAN: op = LT_I; break;
+                    case LESSER_OR_EQUAL: op = LE_I; break;
+                    case GREATER_THAN: op = GT_I; break;
+                    case GREATER_OR_EQUAL: op = GE_I; break;
+                    case NOT_EQUAL: op = NE_I; break;
+                    default: op = EQ_I;
+                }
+                if (expr.left.type == DataType.TIPIK) op += LT_D - LT_I;
+                return emitResult(op, left, right);
+            }
+            case LETRA:
+            case TINUOD:
+                return emitResult(equal ? EQ_L : NE_L, left, right);
+            default:
+                return emitResult(equal ? EQ_S : NE_S, left, right);
+        }
+    }
+
+    // whether evaluating the expression can assign a variable
+    private static boolean hasSideEffects(Expr expr){
+        if (expr == null) return false;
+
+        if (expr instanceof Expr.Assign || expr instanceof Expr.IncrementOrDecrement) return true;
+        if (expr instanceof Expr.Binary){
+            return hasSideEffects(((Expr.Binary) expr).left) || hasSideEffects(((Expr.Binary) expr).right);
+        }
+        if (expr instanceof Expr.Logical){
+            return hasSideEffects(((Expr.Logical) expr).left) || hasSideEffects(((Expr.Logical) expr).right);
+        }
+        if (expr instanceof Expr.Grouping) return hasSideEffects(((Expr.Grouping) expr).expression);
+        if (expr instanceof Expr.Unary) return hasSideEffects(((Expr.Unary) expr).right);
+        if (expr instanceof Expr.Convert) return hasSideEffects(((Expr.Convert) expr).expression);
+        return false;
+    }
+
+    private static IllegalStateException unexpected(Expr expr){
+        return new IllegalStateException("Unexpected " + expr.type + " expression " + expr.getClass().getSimpleName());
+    }
+}
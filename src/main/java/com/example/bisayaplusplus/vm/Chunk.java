@@ -0,0 +1,75 @@
+/* CHUNK
+ * A program compiled to VM bytecode: the code, the constant pool, the line
+ * table and the number of registers the code uses.
+ *
+ * The line table maps instructions back to the source. It only has an entry
+ * where the line changes: the instructions from linePcs[i] up to the next
+ * entry come from line lines[i].
+ */
+
+package com.example.bisayaplusplus.vm;
+
+import com.example.bisayaplusplus.parser.Expr;
+import com.example.bisayaplusplus.parser.SwitchTable;
+import java.util.List;
+
+public class Chunk {
+    public final int[] code;
+    public final Object[] constants;
+    public final int[] linePcs;
+    public final int[] lines;
+    public final int registers;
+
+    // the variables of a DAWAT statement and the registers they live in
+    public static class Input {
+        public final List<Expr.Variable> variables;
+        public final int[] registers;
+
+        public Input(List<Expr.Variable> variables, int[] registers){
+            this.variables = variables;
+            this.registers = registers;
+        }
+    }
+
+    // the dispatch of a Stmt.Switch: the code of each branch and of the default
+    public static class Switch {
+        public final SwitchTable table;
+        public final int[] targets;
+        public int defaultTarget;
+
+        public Switch(SwitchTable table){
+            this.table = table;
+            this.targets = new int[table.keys.length];
+        }
+
+        public int target(int key){
+            int branch = table.indexOf(key);
+            return (branch >= 0) ? targets[branch] : defaultTarget;
+        }
+    }
+
+    public Chunk(int[] code, Object[] constants, int[] linePcs, int[] lines, int registers){
+        this.code = code;
+        this.constants = constants;
+        this.linePcs = linePcs;
+        this.lines = lines;
+        this.registers = registers;
+    }
+
+    // the source line of the instruction at pc
+    public int lineAt(int pc){
+        int low = 0, high = linePcs.length - 1, line = 0;
+
+        while (low <= high){
+            int mid = (low + high) >>> 1;
+            if (linePcs[mid] <= pc){
+                line = lines[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return line;
+    }
+}
@@ -0,0 +1,99 @@
+/* DISASSEMBLER
+ * Turns a Chunk back into readable text, one instruction per line, for
+ * inspecting what the BytecodeCompiler generated:
+ *
+ *   0012  [   4]  ADD_I     r3, r0, r1
+ *   0016     |    JUMP_F    r3, -> 0031
+ *
+ * Each line has the instruction's index in the code, its source line (a '|'
+ * when it is the same as the line above), the opcode and the operands.
+ */
+
+package com.example.bisayaplusplus.vm;
+
+public class Disassembler {
+    private Disassembler(){}
+
+    public static String disassemble(Chunk chunk){
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("; %d words, %d registers, %d constants%n",
+                chunk.code.length, chunk.registers, chunk.constants.length));
+
+        int previousLine = -1;
+        for (int pc = 0; pc < chunk.code.length; pc += Opcode.length(chunk.code[pc])){
+            int line = chunk.lineAt(pc);
+            String lineColumn = (line == previousLine) ? "   |  " : String.format("[%4d]", line);
+            previousLine = line;
+
+            text.append(String.format("%04d  %s  %s%n", pc, lineColumn, instruction(chunk, pc)));
+        }
+
+        return text.toString();
+    }
+
+    // the opcode and the operands of the instruction at pc
+    public static String instruction(Chunk chunk, int pc){
+        int[] code = chunk.code;
+        String format = Opcode.format(code[pc]);
+        StringBuilder text = new StringBuilder(String.format("%-9s", Opcode.name(code[pc])));
+
+        int word = pc + 1;
+        for (int i = 0; i < format.length(); i++){
+            text.append(i == 0 ? " " : ", ");
+
+            switch (format.charAt(i)){
+                case 'r':
+                    text.append('r').append(code[word++]);
+                    break;
+                case 'i':
+                    text.append(code[word++]);
+                    break;
+                case 'd': {
+                    long bits = ((long) code[word] << 32) | (code[word + 1] & 0xffff_ffffL);
+                    text.append(Double.longBitsToDouble(bits));
+                    word += 2;
+                    break;
+                }
+                case 'k':
+                    text.append('k').append(code[word]).append(" (").append(constant(chunk.constants[code[word]])).append(')');
+                    word++;
+                    break;
+                case 'j':
+                    text.append(String.format("-> %04d", code[word++]));
+                    break;
+            }
+        }
+
+        return text.toString();
+    }
+
+    private static String constant(Object value){
+        if (value instanceof String){
+            return "\"" + ((String) value).replace("\n", "\\n") + "\"";
+        }
+
+        if (value instanceof Chunk.Input){
+            Chunk.Input input = (Chunk.Input) value;
+            StringBuilder text = new StringBuilder("DAWAT");
+            for (int i = 0; i < input.registers.length; i++){
+                text.append(i == 0 ? " " : ", ")
+                        .append(input.variables.get(i).name.getLiteral())
+                        .append(" -> r").append(input.registers[i]);
+            }
+            return text.toString();
+        }
+
+        if (value instanceof Chunk.Switch){
+            Chunk.Switch dispatch = (Chunk.Switch) value;
+            StringBuilder text = new StringBuilder("SWITCH");
+            for (int i = 0; i < dispatch.targets.length; i++){
+                text.append(i == 0 ? " " : ", ")
+                        .append(dispatch.table.keys[i])
+                        .append(String.format(" -> %04d", dispatch.targets[i]));
+            }
+            return text.append(String.format(", else -> %04d", dispatch.defaultTarget)).toString();
+        }
+
+        return String.valueOf(value);
+    }
+}
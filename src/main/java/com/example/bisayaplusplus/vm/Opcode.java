@@ -0,0 +1,141 @@
+/* OPCODE
+ * The instructions of the Bisaya++ VM. An instruction is an opcode followed by
+ * its operands, all stored as ints in the code array. The letters of an
+ * instruction's format name its operands, in order:
+ *   r - a register           i - an int immediate
+ *   d - a double immediate, stored as two ints (high and low 32 bits)
+ *   k - an index into the constant pool
+ *   j - a jump target, the index of an instruction in the code
+ *
+ * NUMERO, TIPIK, LETRA and TINUOD values live in the long registers with the
+ * same bits as in the Environment's frames; text lives in the string registers,
+ * which use the same numbers. The destination register comes first.
+ */
+
+package com.example.bisayaplusplus.vm;
+
+public final class Opcode {
+    // loading and moving
+    public static final int CONST_I = 0;    // r i      r = i (NUMERO, LETRA and TINUOD constants)
+    public static final int CONST_D = 1;    // r d      r = d
+    public static final int CONST_S = 2;    // r k      r = the text constant k
+    public static final int MOVE = 3;       // r r      r = r
+    public static final int UNSET = 4;      // r        marks a variable as not assigned yet
+    public static final int CHECK = 5;      // r k      fails if the variable named k is not assigned yet
+
+    // NUMERO arithmetic, exact: fails on overflow and on division by zero
+    public static final int ADD_I = 6;      // r r r
+    public static final int SUB_I = 7;      // r r r
+    public static final int MUL_I = 8;      // r r r
+    public static final int DIV_I = 9;      // r r r
+    public static final int MOD_I = 10;     // r r r
+    public static final int NEG_I = 11;     // r r
+
+    // TIPIK arithmetic
+    public static final int ADD_D = 12;     // r r r
+    public static final int SUB_D = 13;     // r r r
+    public static final int MUL_D = 14;     // r r r
+    public static final int DIV_D = 15;     // r r r
+    public static final int MOD_D = 16;     // r r r
+    public static final int NEG_D = 17;     // r r
+
+    // ++ and -- in place, by a delta of +1 or -1
+    public static final int INC_I = 18;     // r i
+    public static final int INC_D = 19;     // r i
+    public static final int INC_C = 20;     // r i
+
+    // comparisons, the result is a TINUOD
+    public static final int LT_I = 21;      // r r r
+    public static final int LE_I = 22;      // r r r
+    public static final int GT_I = 23;      // r r r
+    public static final int GE_I = 24;      // r r r
+    public static final int EQ_I = 25;      // r r r
+    public static final int NE_I = 26;      // r r r
+    public static final int LT_D = 27;      // r r r
+    public static final int LE_D = 28;      // r r r
+    public static final int GT_D = 29;      // r r r
+    public static final int GE_D = 30;      // r r r
+    public static final int EQ_D = 31;      // r r r
+    public static final int NE_D = 32;      // r r r
+    public static final int EQ_L = 33;      // r r r    LETRA and TINUOD, compares the bits
+    public static final int NE_L = 34;      // r r r
+    public static final int EQ_S = 35;      // r r r
+    public static final int NE_S = 36;      // r r r
+    public static final int NOT = 37;       // r r
+
+    // conversions
+    public static final int I2D = 38;       // r r
+    public static final int D2I = 39;       // r r      truncates
+    public static final int I2B = 40;       // r r      0 is false
+    public static final int D2B = 41;       // r r
+    public static final int S2B = 42;       // r r      "DILI" is false
+    public static final int I2S = 43;       // r r
+    public static final int D2S = 44;       // r r
+    public static final int C2S = 45;       // r r
+    public static final int B2S = 46;       // r r      "OO" or "DILI"
+    public static final int CONCAT = 47;    // r r r
+
+    // statements
+    public static final int PRINT = 48;     // r        IPAKITA
+    public static final int READ = 49;      // k        DAWAT into the variables of the Input constant k
+    public static final int JUMP = 50;      // j
+    public static final int JUMP_F = 51;    // r j      jumps if the TINUOD is false
+    public static final int JUMP_T = 52;    // r j      jumps if the TINUOD is true
+    public static final int POLL = 53;      // j        jumps out of the loop if the program was asked to stop
+    public static final int SWITCH = 54;    // r k      jumps to the branch of the Switch constant k for the key r
+
+    // a NUMERO comparison and a jump in one, for conditions: jumps if it holds
+    public static final int JLT_I = 55;     // r r j
+    public static final int JLE_I = 56;     // r r j
+    public static final int JGT_I = 57;     // r r j
+    public static final int JGE_I = 58;     // r r j
+    public static final int JEQ_I = 59;     // r r j    also LETRA and TINUOD, compares the bits
+    public static final int JNE_I = 60;     // r r j
+    public static final int HALT = 61;
+
+    private static final String[] NAMES = {
+            "CONST_I", "CONST_D", "CONST_S", "MOVE", "UNSET", "CHECK",
+            "ADD_I", "SUB_I", "MUL_I", "DIV_I", "MOD_I", "NEG_I",
+            "ADD_D", "SUB_D", "MUL_D", "DIV_D", "MOD_D", "NEG_D",
+            "INC_I", "INC_D", "INC_C",
+            "LT_I", "LE_I", "GT_I", "GE_I", "EQ_I", "NE_I",
+            "LT_D", "LE_D", "GT_D", "GE_D", "EQ_D", "NE_D",
+            "EQ_L", "NE_L", "EQ_S", "NE_S", "NOT",
+            "I2D", "D2I", "I2B", "D2B", "S2B", "I2S", "D2S", "C2S", "B2S", "CONCAT",
+            "PRINT", "READ", "JUMP", "JUMP_F", "JUMP_T", "POLL", "SWITCH",
+            "JLT_I", "JLE_I", "JGT_I", "JGE_I", "JEQ_I", "JNE_I", "HALT"
+    };
+
+    private static final String[] FORMATS = {
+            "ri", "rd", "rk", "rr", "r", "rk",
+            "rrr", "rrr", "rrr", "rrr", "rrr", "rr",
+            "rrr", "rrr", "rrr", "rrr", "rrr", "rr",
+            "ri", "ri", "ri",
+            "rrr", "rrr", "rrr", "rrr", "rrr", "rrr",
+            "rrr", "rrr", "rrr", "rrr", "rrr", "rrr",
+            "rrr", "rrr", "rrr", "rrr", "rr",
+            "rr", "rr", "rr", "rr", "rr", "rr", "rr", "rr", "rr", "rrr",
+            "r", "k", "j", "rj", "rj", "j", "rk",
+            "rrj", "rrj", "rrj", "rrj", "rrj", "rrj", ""
+    };
+
+    private Opcode(){}
+
+    public static String name(int opcode){
+        return NAMES[opcode];
+    }
+
+    public static String format(int opcode){
+        return FORMATS[opcode];
+    }
+
+    // number of ints the instruction takes, the opcode included
+    public static int length(int opcode){
+        String format = FORMATS[opcode];
+        int length = 1;
+        for (int i = 0; i < format.length(); i++){
+            length += (format.charAt(i) == 'd') ? 2 : 1;
+        }
+        return length;
+    }
+}
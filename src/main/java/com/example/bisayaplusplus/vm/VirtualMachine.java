@@ -0,0 +1,354 @@
+/* VIRTUAL MACHINE
+ * This engine runs a program compiled to bytecode by the BytecodeCompiler.
+ * The code is a flat int[] that a single loop decodes and dispatches on, and
+ * all values live in two register files: a long[] for NUMERO, TIPIK, LETRA
+ * and TINUOD (with the same bits as the Environment's frames) and a String[]
+ * for text. Walking the program touches only these few arrays instead of the
+ * objects of the tree.
+ *
+ * Runtime errors get their line from the chunk's line table, so they read the
+ * same as the Interpreter's.
+ */
+
+package com.example.bisayaplusplus.vm;
+
+import com.example.bisayaplusplus.exception.RuntimeError;
+import com.example.bisayaplusplus.interpreter.Engine;
+import com.example.bisayaplusplus.interpreter.Environment;
+import com.example.bisayaplusplus.interpreter.Program;
+import com.example.bisayaplusplus.io.InputSource;
+import com.example.bisayaplusplus.io.OutputSink;
+import java.util.Arrays;
+
+import static com.example.bisayaplusplus.vm.Opcode.*;
+
+public class VirtualMachine implements Engine {
+    private final Chunk chunk;
+    private final OutputSink output;
+    private final InputSource input;
+    private volatile boolean shouldStop;
+
+    public VirtualMachine(Chunk chunk, OutputSink output, InputSource input){
+        this.chunk = chunk;
+        this.output = output;
+        this.input = input;
+    }
+
+    public VirtualMachine(Program program, OutputSink output, InputSource input){
+        this(BytecodeCompiler.compile(program), output, input);
+    }
+
+    @Override
+    public void stopInterpreting(){
+        shouldStop = true;
+    }
+
+    @Override
+    public void interpret(){
+        final int[] code = chunk.code;
+        final Object[] constants = chunk.constants;
+        final long[] r = new long[chunk.registers];
+        final String[] s = new String[chunk.registers];
+        Arrays.fill(r, Environment.UNSET);
+
+        int pc = 0;
+
+        while (true){
+            switch (code[pc]){
+                case CONST_I:
+                    r[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case CONST_D:
+                    r[code[pc + 1]] = ((long) code[pc + 2] << 32) | (code[pc + 3] & 0xffff_ffffL);
+                    pc += 4;
+                    break;
+                case CONST_S:
+                    s[code[pc + 1]] = (String) constants[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case MOVE:
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    s[code[pc + 1]] = s[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case UNSET:
+                    r[code[pc + 1]] = Environment.UNSET;
+                    pc += 2;
+                    break;
+                case CHECK:
+                    if (r[code[pc + 1]] == Environment.UNSET){
+                        throw error(pc, "Variable " + constants[code[pc + 2]] + " might not have been initialized.");
+                    }
+                    pc += 3;
+                    break;
+
+                case ADD_I: {
+                    int a = (int) r[code[pc + 2]], b = (int) r[code[pc + 3]];
+                    int sum = a + b;
+                    if (((a ^ sum) & (b ^ sum)) < 0) throw overflow(pc);
+                    r[code[pc + 1]] = sum;
+                    pc += 4;
+                    break;
+                }
+                case SUB_I: {
+                    int a = (int) r[code[pc + 2]], b = (int) r[code[pc + 3]];
+                    int difference = a - b;
+                    if (((a ^ b) & (a ^ difference)) < 0) throw overflow(pc);
+                    r[code[pc + 1]] = difference;
+                    pc += 4;
+                    break;
+                }
+                case MUL_I: {
+                    long product = (long) (int) r[code[pc + 2]] * (int) r[code[pc + 3]];
+                    if ((int) product != product) throw overflow(pc);
+                    r[code[pc + 1]] = product;
+                    pc += 4;
+                    break;
+                }
+                case DIV_I: {
+                    int a = (int) r[code[pc + 2]], b = (int) r[code[pc + 3]];
+                    if (b == 0) throw error(pc, "Division by zero.");
+                    if (a == Integer.MIN_VALUE && b == -1) throw overflow(pc);
+                    r[code[pc + 1]] = a / b;
+                    pc += 4;
+                    break;
+                }
+                case MOD_I: {
+                    int a = (int) r[code[pc + 2]], b = (int) r[code[pc + 3]];
+                    if (b == 0) throw error(pc, "Modulo by zero.");
+                    r[code[pc + 1]] = a % b;
+                    pc += 4;
+                    break;
+                }
+                case NEG_I: {
+                    int a = (int) r[code[pc + 2]];
+                    if (a == Integer.MIN_VALUE) throw overflow(pc);
+                    r[code[pc + 1]] = -a;
+                    pc += 3;
+                    break;
+                }
+
+                case ADD_D:
+                    r[code[pc + 1]] = bits(d(r[code[pc + 2]]) + d(r[code[pc + 3]]));
+                    pc += 4;
+                    break;
+                case SUB_D:
+                    r[code[pc + 1]] = bits(d(r[code[pc + 2]]) - d(r[code[pc + 3]]));
+                    pc += 4;
+                    break;
+                case MUL_D:
+                    r[code[pc + 1]] = bits(d(r[code[pc + 2]]) * d(r[code[pc + 3]]));
+                    pc += 4;
+                    break;
+                case DIV_D:
+                    r[code[pc + 1]] = bits(d(r[code[pc + 2]]) / d(r[code[pc + 3]]));
+                    pc += 4;
+                    break;
+                case MOD_D:
+                    r[code[pc + 1]] = bits(d(r[code[pc + 2]]) % d(r[code[pc + 3]]));
+                    pc += 4;
+                    break;
+                case NEG_D:
+                    r[code[pc + 1]] = bits(-d(r[code[pc + 2]]));
+                    pc += 3;
+                    break;
+
+                case INC_I: {
+                    int register = code[pc + 1], delta = code[pc + 2];
+                    int value = (int) r[register];
+                    if (value == (delta > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) throw overflow(pc);
+                    r[register] = value + delta;
+                    pc += 3;
+                    break;
+                }
+                case INC_D: {
+                    int register = code[pc + 1];
+                    r[register] = bits(d(r[register]) + code[pc + 2]);
+                    pc += 3;
+                    break;
+                }
+                case INC_C: {
+                    int register = code[pc + 1];
+                    r[register] = (char) (r[register] + code[pc + 2]);
+                    pc += 3;
+                    break;
+                }
+
+                case LT_I:
+                    r[code[pc + 1]] = ((int) r[code[pc + 2]] < (int) r[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case LE_I:
+                    r[code[pc + 1]] = ((int) r[code[pc + 2]] <= (int) r[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case GT_I:
+                    r[code[pc + 1]] = ((int) r[code[pc + 2]] > (int) r[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case GE_I:
+                    r[code[pc + 1]] = ((int) r[code[pc + 2]] >= (int) r[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case EQ_I:
+                case EQ_L:
+                    r[code[pc + 1]] = (r[code[pc + 2]] == r[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case NE_I:
+                case NE_L:
+                    r[code[pc + 1]] = (r[code[pc + 2]] != r[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case LT_D:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) < d(r[code[pc + 3]])) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case LE_D:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) <= d(r[code[pc + 3]])) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case GT_D:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) > d(r[code[pc + 3]])) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case GE_D:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) >= d(r[code[pc + 3]])) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case EQ_D:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) == d(r[code[pc + 3]])) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case NE_D:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) != d(r[code[pc + 3]])) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case EQ_S:
+                    r[code[pc + 1]] = s[code[pc + 2]].equals(s[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case NE_S:
+                    r[code[pc + 1]] = s[code[pc + 2]].equals(s[code[pc + 3]]) ? 0 : 1;
+                    pc += 4;
+                    break;
+                case NOT:
+                    r[code[pc + 1]] = r[code[pc + 2]] ^ 1;
+                    pc += 3;
+                    break;
+
+                case I2D:
+                    r[code[pc + 1]] = bits((int) r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case D2I:
+                    r[code[pc + 1]] = (int) d(r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case I2B:
+                    r[code[pc + 1]] = ((int) r[code[pc + 2]] != 0) ? 1 : 0;
+                    pc += 3;
+                    break;
+                case D2B:
+                    r[code[pc + 1]] = (d(r[code[pc + 2]]) != 0) ? 1 : 0;
+                    pc += 3;
+                    break;
+                case S2B:
+                    r[code[pc + 1]] = s[code[pc + 2]].equals("DILI") ? 0 : 1;
+                    pc += 3;
+                    break;
+                case I2S:
+                    s[code[pc + 1]] = Integer.toString((int) r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case D2S:
+                    s[code[pc + 1]] = Double.toString(d(r[code[pc + 2]]));
+                    pc += 3;
+                    break;
+                case C2S:
+                    s[code[pc + 1]] = String.valueOf((char) r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case B2S:
+                    s[code[pc + 1]] = (r[code[pc + 2]] != 0) ? "OO" : "DILI";
+                    pc += 3;
+                    break;
+                case CONCAT:
+                    s[code[pc + 1]] = s[code[pc + 2]] + s[code[pc + 3]];
+                    pc += 4;
+                    break;
+
+                case PRINT:
+                    output.write(s[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case READ: {
+                    Chunk.Input target = (Chunk.Input) constants[code[pc + 1]];
+
+                    // prompts printed before DAWAT must be visible before waiting for input
+                    output.flush();
+                    String[] inputs = Environment.splitInput(target.variables, input.readLine());
+                    for (int i = 0; i < inputs.length; i++){
+                        r[target.registers[i]] = Environment.parseInput(target.variables.get(i), inputs[i]);
+                    }
+                    pc += 2;
+                    break;
+                }
+                case JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case JUMP_F:
+                    pc = (r[code[pc + 1]] == 0) ? code[pc + 2] : pc + 3;
+                    break;
+                case JUMP_T:
+                    pc = (r[code[pc + 1]] != 0) ? code[pc + 2] : pc + 3;
+                    break;
+                case POLL:
+                    pc = shouldStop ? code[pc + 1] : pc + 2;
+                    break;
+                case SWITCH:
+                    pc = ((Chunk.Switch) constants[code[pc + 2]]).target((int) r[code[pc + 1]]);
+                    break;
+                case JLT_I:
+                    pc = ((int) r[code[pc + 1]] < (int) r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                    break;
+                case JLE_I:
+                    pc = ((int) r[code[pc + 1]] <= (int) r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                    break;
+                case JGT_I:
+                    pc = ((int) r[code[pc + 1]] > (int) r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                    break;
+                case JGE_I:
+                    pc = ((int) r[code[pc + 1]] >= (int) r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                    break;
+                case JEQ_I:
+                    pc = (r[code[pc + 1]] == r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                    break;
+                case JNE_I:
+                    pc = (r[code[pc + 1]] != r[code[pc + 2]]) ? code[pc + 3] : pc + 4;
+                    break;
+                case HALT:
+                    return;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + code[pc] + " at " + pc);
+            }
+        }
+    }
+
+    private static double d(long bits){
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static long bits(double value){
+        return Double.doubleToRawLongBits(value);
+    }
+
+    private RuntimeError error(int pc, String message){
+        return new RuntimeError(chunk.lineAt(pc), message);
+    }
+
+    private RuntimeError overflow(int pc){
+        return error(pc, "Integer overflow. The result does not fit in a NUMERO.");
+    }
+}
@@ -1,6 +1,7 @@
 module com.example.bisayaplusplus {
     requires javafx.controls;
     requires javafx.fxml;
+    requires org.objectweb.asm;
 
 
     opens com.example.bisayaplusplus to javafx.fxml;
@@ -9,5 +10,10 @@ module com.example.bisayaplusplus {
     exports com.example.bisayaplusplus.exception;
     exports com.example.bisayaplusplus.lexer;
     exports com.example.bisayaplusplus.interpreter;
+    exports com.example.bisayaplusplus.io;
+    exports com.example.bisayaplusplus.cli;
+    exports com.example.bisayaplusplus.vm;
+    exports com.example.bisayaplusplus.jvm;
+    exports com.example.bisayaplusplus.optimizer;
     opens com.example.bisayaplusplus.interpreter to javafx.fxml;
 }
\ No newline at end of file